@@ -0,0 +1,99 @@
+package io.example.api;
+
+import io.example.api.FlightEndpoint.BookingRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// What logging one booking request costs the thread that handles it, before
+// and after moving request logging off the hot path (logging-benchmark.xml has
+// the appenders). before is the old INFO line with the whole BookingRequest,
+// written synchronously in the logback-test.xml pattern; afterSampled is
+// RequestLog with the default sample-every of 100, through the async JSON
+// appender; afterEveryRequest is RequestLog logging every request the same
+// way. noLogging is the floor.
+//
+// Runs on four threads, since a synchronous appender serializes its callers on
+// one lock.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logging-benchmark.xml")
+@Threads(4)
+public class RequestLoggingBenchmark {
+
+    private static final int REQUESTS = 1024;
+
+    private static final Logger BEFORE = LoggerFactory.getLogger("benchmark.before");
+    private static final Logger AFTER = LoggerFactory.getLogger("benchmark.after");
+
+    private final RequestLog sampled = new RequestLog(AFTER, 100);
+    private final RequestLog everyRequest = new RequestLog(AFTER, 1);
+
+    private String[] slotIds;
+    private BookingRequest[] requests;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        slotIds = new String[REQUESTS];
+        requests = new BookingRequest[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            slotIds[i] = String.format("2025-12-%02d-%02d", 1 + i % 28, 6 + i % 15);
+            requests[i] = new BookingRequest(
+                    "student-" + i, "aircraft-" + i % 50, "instructor-" + i % 20, UUID.randomUUID().toString());
+        }
+    }
+
+    @Benchmark
+    public BookingRequest noLogging() {
+        return request();
+    }
+
+    @Benchmark
+    public BookingRequest before() {
+        BookingRequest request = request();
+        BEFORE.info("Creating booking for slot {}: {}", slotIds[next], request);
+        return request;
+    }
+
+    @Benchmark
+    public BookingRequest afterSampled() {
+        return log(sampled);
+    }
+
+    @Benchmark
+    public BookingRequest afterEveryRequest() {
+        return log(everyRequest);
+    }
+
+    private BookingRequest log(RequestLog requestLog) {
+        BookingRequest request = request();
+        requestLog.sample("create_booking")
+                .addKeyValue("slotId", slotIds[next])
+                .addKeyValue("bookingId", request.bookingId())
+                .log("Creating booking");
+        return request;
+    }
+
+    private BookingRequest request() {
+        next = (next + 1) % REQUESTS;
+        return requests[next];
+    }
+}
@@ -0,0 +1,77 @@
+package io.example.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.domain.BookingEvent;
+import io.example.domain.Timeslot;
+import io.example.domain.TimeslotReplayBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Booking slot recovery as the entity does it, through BookingSlotEntity.apply.
+// fullReplay replays a whole journal of composite events, as a slot without
+// snapshots would. snapshotRecovery reads a snapshot of the slot taken
+// `events` in, then replays the 200 events written after it, which is the most
+// recovery does with snapshot-every = 200 (see application.conf). The
+// booking_slot_recovery_seconds histogram is the same measurement in
+// production.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingSlotReplayBenchmark {
+
+    private static final int SNAPSHOT_EVERY = 200;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Param({"1000", "10000", "100000"})
+    public int events;
+
+    // Bookings left standing at any point in the journal
+    @Param({"16", "1024"})
+    public int openBookings;
+
+    private List<BookingEvent> journal;
+    private byte[] snapshot;
+    private List<BookingEvent> sinceSnapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        journal = TimeslotReplayBenchmark.journal(events + SNAPSHOT_EVERY, openBookings, true);
+        List<BookingEvent> beforeSnapshot = journal.subList(0, events);
+        snapshot = MAPPER.writeValueAsBytes(replay(Timeslot.empty(), beforeSnapshot));
+        sinceSnapshot = journal.subList(events, journal.size());
+        journal = beforeSnapshot;
+    }
+
+    @Benchmark
+    public Timeslot fullReplay() {
+        return replay(Timeslot.empty(), journal);
+    }
+
+    @Benchmark
+    public Timeslot snapshotRecovery() throws IOException {
+        return replay(MAPPER.readValue(snapshot, Timeslot.class), sinceSnapshot);
+    }
+
+    private static Timeslot replay(Timeslot slot, List<BookingEvent> events) {
+        for (BookingEvent event : events) {
+            slot = BookingSlotEntity.apply(slot, event);
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,137 @@
+package io.example.application;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.example.application.GoogleWeatherService.ForecastHour;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Compares the original tree-based forecast lookup with the streaming parser on a
+// recorded 240-hour response (10 pages of 24 hours). Run with -prof gc to see the
+// allocation difference as well.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForecastParsingBenchmark {
+
+    // Offset of the requested hour from the start of the forecast
+    @Param({"3", "120", "236"})
+    public int hourOffset;
+
+    private List<byte[]> pages;
+    private LocalDateTime target;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode recorded;
+        try (InputStream in = getClass().getResourceAsStream("/fixtures/forecast-hours-240.json")) {
+            recorded = mapper.readTree(in);
+        }
+        pages = new ArrayList<>();
+        for (JsonNode page : recorded) {
+            pages.add(mapper.writeValueAsBytes(page));
+        }
+        String firstHour = recorded.path(0).path("forecastHours").path(0).path("interval").path("startTime").asText();
+        target = ZonedDateTime.parse(firstHour).toLocalDateTime().plusHours(hourOffset);
+    }
+
+    // The lookup as it was before the streaming parser: every page becomes a String
+    // and a tree, the trees are merged, written back out and parsed again to scan
+    @Benchmark
+    public String treeLookup() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<JsonNode> allForecasts = new ArrayList<>();
+        for (byte[] page : pages) {
+            JsonNode root = mapper.readTree(new String(page, StandardCharsets.UTF_8));
+            for (JsonNode forecast : root.path("forecastHours")) {
+                allForecasts.add(forecast);
+            }
+        }
+        ObjectNode combinedRoot = mapper.createObjectNode();
+        ArrayNode combinedForecasts = mapper.createArrayNode();
+        combinedForecasts.addAll(allForecasts);
+        combinedRoot.set("forecastHours", combinedForecasts);
+        String combinedJson = mapper.writeValueAsString(combinedRoot);
+
+        JsonNode hourlyForecasts = new ObjectMapper().readTree(combinedJson).path("forecastHours");
+        for (JsonNode forecast : hourlyForecasts) {
+            String dateTimeStr = forecast.path("interval").path("startTime").asText();
+            ZonedDateTime forecastDateTime = ZonedDateTime.parse(dateTimeStr, DateTimeFormatter.ISO_ZONED_DATE_TIME);
+            if (forecastDateTime.getYear() == target.getYear() &&
+                    forecastDateTime.getMonthValue() == target.getMonthValue() &&
+                    forecastDateTime.getDayOfMonth() == target.getDayOfMonth() &&
+                    forecastDateTime.getHour() == target.getHour()) {
+                return treeSummary(forecast);
+            }
+        }
+        return null;
+    }
+
+    // Streams pages until the requested hour turns up
+    @Benchmark
+    public String streamingLookup() throws IOException {
+        int targetKey = ForecastHoursParser.hourKey(target);
+        for (byte[] page : pages) {
+            ForecastHoursParser.Page parsed =
+                    ForecastHoursParser.readPage(new ByteArrayInputStream(page), targetKey);
+            if (parsed.target() != null) {
+                return parsed.target().summary();
+            }
+        }
+        return null;
+    }
+
+    // Streams every page into the hour index the forecast cache keeps
+    @Benchmark
+    public String streamingIndex() throws IOException {
+        Map<Integer, ForecastHour> hours = HashMap.newHashMap(240);
+        for (byte[] page : pages) {
+            for (ForecastHour hour : ForecastHoursParser.readPage(
+                    new ByteArrayInputStream(page), ForecastHoursParser.READ_ALL).hours()) {
+                hours.put(hour.hourKey(), hour);
+            }
+        }
+        return hours.get(ForecastHoursParser.hourKey(target)).summary();
+    }
+
+    private static String treeSummary(JsonNode hour) {
+        String condition = hour.path("weatherCondition").path("description").path("text").asText();
+        int temp = (int) Math.round(hour.path("temperature").path("degrees").asDouble());
+        int rainChance = hour.path("precipitation").path("probability").path("percent").asInt();
+        int thunderstormChance = hour.path("thunderstormProbability").asInt();
+        int windSpeed = (int) Math.round(hour.path("wind").path("speed").path("value").asDouble());
+        return condition +
+                ", Temp: " + temp + "°C" +
+                ", Rain: " + rainChance + "%" +
+                ", Thunder: " + thunderstormChance + "%" +
+                ", Wind: " + windSpeed + " km/h";
+    }
+}
@@ -0,0 +1,241 @@
+package io.example.application;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.application.ParticipantSlotEntity.Commands;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.ParticipantCalendar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Compares the participant slot layout (one ParticipantSlotEntity per slot and
+// participant) with the participant calendar layout (one
+// ParticipantCalendarEntity per participant and month) on a month of booking
+// events: participants marking hours available, bookings of whoever is
+// waiting, and some cancellations and withdrawn availability.
+//
+// Setup prints, per layout, the entities created, events persisted, journal
+// bytes (events as JSON), the longest journal and the largest state, and the
+// writes between a booking event and a readable result (entity then view for
+// participant slots, the calendar alone for calendars). The benchmarks time
+// recovering every entity of the layout from its journal. The view lag itself
+// can only be seen in a running service: compare
+// booking_slot_consumer_lag_seconds with booking_slot_calendar_consumer_lag_seconds.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParticipantLayoutBenchmark {
+
+    private static final LocalDate MONTH = LocalDate.of(2025, 12, 1);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Param({"200", "2000"})
+    public int participants;
+
+    private List<List<ParticipantSlotEntity.Event>> slotJournals;
+    private List<List<ParticipantCalendarEntity.Event>> calendarJournals;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        List<BookingEvent> bookingEvents = month(participants);
+
+        Map<String, List<ParticipantSlotEntity.Event>> slots = new HashMap<>();
+        Map<String, List<ParticipantCalendarEntity.Event>> calendars = new HashMap<>();
+        Map<String, ParticipantCalendar> calendarStates = new HashMap<>();
+        for (BookingEvent bookingEvent : bookingEvents) {
+            for (Commands command : SlotToCalendarConsumer.commands(bookingEvent)) {
+                slots.computeIfAbsent(ParticipantSlotFanOut.participantSlotId(command), id -> new ArrayList<>())
+                        .add(slotEvent(command));
+
+                String calendarId = ParticipantCalendarEntity.calendarId(
+                        SlotToCalendarConsumer.participantId(command), bookingEvent.slotId());
+                ParticipantCalendarEntity.Event event = calendarEvent(command);
+                ParticipantCalendar before = calendarStates.getOrDefault(calendarId, ParticipantCalendar.empty());
+                ParticipantCalendar after = ParticipantCalendarEntity.apply(before, event);
+                // The calendar persists nothing for a command that changes nothing
+                if (after != before) {
+                    calendarStates.put(calendarId, after);
+                    calendars.computeIfAbsent(calendarId, id -> new ArrayList<>()).add(event);
+                }
+            }
+        }
+        slotJournals = List.copyOf(slots.values());
+        calendarJournals = List.copyOf(calendars.values());
+
+        ParticipantSlotEntity slotEntity = new ParticipantSlotEntity();
+        long slotStateBytes = 0;
+        for (List<ParticipantSlotEntity.Event> journal : slotJournals) {
+            slotStateBytes = Math.max(slotStateBytes,
+                    MAPPER.writeValueAsBytes(slotEntity.applyEvent(journal.getLast())).length);
+        }
+        long calendarStateBytes = 0;
+        for (ParticipantCalendar calendar : calendarStates.values()) {
+            calendarStateBytes = Math.max(calendarStateBytes, MAPPER.writeValueAsBytes(calendar).length);
+        }
+
+        System.out.printf("%n%d booking events, %d participants%n", bookingEvents.size(), participants);
+        System.out.printf("%-18s %10s %10s %14s %12s %12s %16s%n",
+                "layout", "entities", "events", "journal bytes", "max journal", "max state", "writes to read");
+        report("participant slots", slotJournals, slotStateBytes, "entity + view");
+        report("calendars", calendarJournals, calendarStateBytes, "entity");
+    }
+
+    @Benchmark
+    public int participantSlotsRecovery() {
+        ParticipantSlotEntity entity = new ParticipantSlotEntity();
+        int recovered = 0;
+        for (List<ParticipantSlotEntity.Event> journal : slotJournals) {
+            ParticipantSlotEntity.State state = null;
+            for (ParticipantSlotEntity.Event event : journal) {
+                state = entity.applyEvent(event);
+            }
+            recovered += state == null ? 0 : 1;
+        }
+        return recovered;
+    }
+
+    @Benchmark
+    public int calendarsRecovery() {
+        int slots = 0;
+        for (List<ParticipantCalendarEntity.Event> journal : calendarJournals) {
+            ParticipantCalendar calendar = ParticipantCalendar.empty();
+            for (ParticipantCalendarEntity.Event event : journal) {
+                calendar = ParticipantCalendarEntity.apply(calendar, event);
+            }
+            slots += calendar.slots().size();
+        }
+        return slots;
+    }
+
+    private static void report(String layout, List<? extends List<?>> journals, long maxStateBytes, String writes)
+            throws JsonProcessingException {
+        long events = 0;
+        long bytes = 0;
+        int longest = 0;
+        for (List<?> journal : journals) {
+            events += journal.size();
+            longest = Math.max(longest, journal.size());
+            for (Object event : journal) {
+                bytes += MAPPER.writeValueAsBytes(event).length;
+            }
+        }
+        System.out.printf("%-18s %10d %10d %14d %12d %12d %16s%n",
+                layout, journals.size(), events, bytes, longest, maxStateBytes, writes);
+    }
+
+    private static ParticipantSlotEntity.Event slotEvent(Commands command) {
+        return switch (command) {
+            case Commands.MarkAvailable c ->
+                new ParticipantSlotEntity.Event.MarkedAvailable(c.slotId(), c.participantId(), c.participantType());
+            case Commands.UnmarkAvailable c ->
+                new ParticipantSlotEntity.Event.UnmarkedAvailable(c.slotId(), c.participantId(), c.participantType());
+            case Commands.Book c -> new ParticipantSlotEntity.Event.Booked(
+                    c.slotId(), c.participantId(), c.participantType(), c.bookingId());
+            case Commands.Cancel c -> new ParticipantSlotEntity.Event.Canceled(
+                    c.slotId(), c.participantId(), c.participantType(), c.bookingId());
+        };
+    }
+
+    private static ParticipantCalendarEntity.Event calendarEvent(Commands command) {
+        return switch (command) {
+            case Commands.MarkAvailable c ->
+                new ParticipantCalendarEntity.Event.MarkedAvailable(c.slotId(), c.participantId(), c.participantType());
+            case Commands.UnmarkAvailable c ->
+                new ParticipantCalendarEntity.Event.UnmarkedAvailable(c.slotId(), c.participantId(), c.participantType());
+            case Commands.Book c -> new ParticipantCalendarEntity.Event.Booked(
+                    c.slotId(), c.participantId(), c.participantType(), c.bookingId());
+            case Commands.Cancel c -> new ParticipantCalendarEntity.Event.Canceled(
+                    c.slotId(), c.participantId(), c.participantType(), c.bookingId());
+        };
+    }
+
+    // Half the participants are students, a quarter each aircraft and
+    // instructors. Each is available for about a third of the hours from 06 to
+    // 20; every slot then books whoever is waiting, cancels one booking in ten
+    // and withdraws one remaining availability in ten.
+    static List<BookingEvent> month(int participants) {
+        Random random = new Random(21);
+        List<String> students = ids(random, participants / 2);
+        List<String> aircraft = ids(random, participants / 4);
+        List<String> instructors = ids(random, participants - students.size() - aircraft.size());
+
+        List<BookingEvent> events = new ArrayList<>();
+        for (LocalDate day = MONTH; day.getMonth() == MONTH.getMonth(); day = day.plusDays(1)) {
+            for (int hour = 6; hour <= 20; hour++) {
+                String slotId = FlightConditionsEvaluator.slotId(day.atTime(hour, 0));
+                Deque<String> waitingStudents = markSome(events, random, slotId, students, ParticipantType.STUDENT);
+                Deque<String> waitingAircraft = markSome(events, random, slotId, aircraft, ParticipantType.AIRCRAFT);
+                Deque<String> waitingInstructors =
+                        markSome(events, random, slotId, instructors, ParticipantType.INSTRUCTOR);
+
+                while (!waitingStudents.isEmpty() && !waitingAircraft.isEmpty() && !waitingInstructors.isEmpty()) {
+                    String bookingId = new UUID(random.nextLong(), random.nextLong()).toString();
+                    String student = waitingStudents.pop();
+                    String plane = waitingAircraft.pop();
+                    String instructor = waitingInstructors.pop();
+                    events.add(new BookingEvent.ReservationBooked(slotId, bookingId, student, plane, instructor));
+                    if (random.nextInt(10) == 0) {
+                        events.add(new BookingEvent.ReservationCanceled(slotId, bookingId, student, plane, instructor));
+                    }
+                }
+                unmarkSome(events, random, slotId, waitingStudents, ParticipantType.STUDENT);
+                unmarkSome(events, random, slotId, waitingAircraft, ParticipantType.AIRCRAFT);
+                unmarkSome(events, random, slotId, waitingInstructors, ParticipantType.INSTRUCTOR);
+            }
+        }
+        return events;
+    }
+
+    private static Deque<String> markSome(
+            List<BookingEvent> events, Random random, String slotId, List<String> ids, ParticipantType type) {
+        Deque<String> waiting = new ArrayDeque<>();
+        for (String id : ids) {
+            if (random.nextInt(3) == 0) {
+                events.add(new BookingEvent.ParticipantMarkedAvailable(slotId, id, type));
+                waiting.add(id);
+            }
+        }
+        return waiting;
+    }
+
+    private static void unmarkSome(
+            List<BookingEvent> events, Random random, String slotId, Deque<String> waiting, ParticipantType type) {
+        for (String id : waiting) {
+            if (random.nextInt(10) == 0) {
+                events.add(new BookingEvent.ParticipantUnmarkedAvailable(slotId, id, type));
+            }
+        }
+    }
+
+    private static List<String> ids(Random random, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+        return ids;
+    }
+}
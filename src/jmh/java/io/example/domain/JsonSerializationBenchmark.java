@@ -0,0 +1,111 @@
+package io.example.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.domain.Participant.ParticipantType;
+import java.io.IOException;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Jackson round trips of what the booking slots persist: the two events
+// written most often, and Timeslot snapshots holding `bookings` bookings and
+// as many waiting participants of each type. Events are read back as their
+// own class, as the runtime does once it has resolved the type name. Run with
+// -prof gc for allocation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+  private static final String SLOT_ID = "2025-12-25-10";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private BookingEvent.ParticipantMarkedAvailable markedAvailable;
+  private BookingEvent.ReservationBooked reservationBooked;
+  private byte[] markedAvailableJson;
+  private byte[] reservationBookedJson;
+
+  @Setup
+  public void setUp() throws IOException {
+    Random random = new Random(22);
+    markedAvailable =
+        new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, uuid(random), ParticipantType.AIRCRAFT);
+    reservationBooked = new BookingEvent.ReservationBooked(
+        SLOT_ID, uuid(random), uuid(random), uuid(random), uuid(random));
+    markedAvailableJson = MAPPER.writeValueAsBytes(markedAvailable);
+    reservationBookedJson = MAPPER.writeValueAsBytes(reservationBooked);
+  }
+
+  @State(Scope.Benchmark)
+  public static class Snapshot {
+
+    @Param({"10", "100", "1000"})
+    public int bookings;
+
+    Timeslot slot;
+    byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+      Random random = new Random(22);
+      slot = Timeslot.empty();
+      for (int i = 0; i < bookings; i++) {
+        slot = slot
+            .book(new BookingEvent.ReservationBooked(
+                SLOT_ID, uuid(random), uuid(random), uuid(random), uuid(random)))
+            .reserve(new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, uuid(random), ParticipantType.STUDENT))
+            .reserve(new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, uuid(random), ParticipantType.AIRCRAFT))
+            .reserve(new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, uuid(random), ParticipantType.INSTRUCTOR));
+      }
+      json = MAPPER.writeValueAsBytes(slot);
+    }
+  }
+
+  @Benchmark
+  public byte[] writeMarkedAvailable() throws IOException {
+    return MAPPER.writeValueAsBytes(markedAvailable);
+  }
+
+  @Benchmark
+  public BookingEvent readMarkedAvailable() throws IOException {
+    return MAPPER.readValue(markedAvailableJson, BookingEvent.ParticipantMarkedAvailable.class);
+  }
+
+  @Benchmark
+  public byte[] writeReservationBooked() throws IOException {
+    return MAPPER.writeValueAsBytes(reservationBooked);
+  }
+
+  @Benchmark
+  public BookingEvent readReservationBooked() throws IOException {
+    return MAPPER.readValue(reservationBookedJson, BookingEvent.ReservationBooked.class);
+  }
+
+  @Benchmark
+  public byte[] writeTimeslot(Snapshot snapshot) throws IOException {
+    return MAPPER.writeValueAsBytes(snapshot.slot);
+  }
+
+  @Benchmark
+  public Timeslot readTimeslot(Snapshot snapshot) throws IOException {
+    return MAPPER.readValue(snapshot.json, Timeslot.class);
+  }
+
+  private static String uuid(Random random) {
+    return new UUID(random.nextLong(), random.nextLong()).toString();
+  }
+}
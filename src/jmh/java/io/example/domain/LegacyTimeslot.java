@@ -0,0 +1,42 @@
+package io.example.domain;
+
+import io.example.domain.Timeslot.Booking;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Timeslot as it was before it moved to indexed, persistent sets: reserve,
+// unreserve and book mutate shared HashSets in place and cancelBooking copies
+// every other booking. Kept here as the baseline for the replay benchmarks.
+record LegacyTimeslot(Set<Booking> bookings, Set<Participant> available) {
+
+  static LegacyTimeslot empty() {
+    return new LegacyTimeslot(HashSet.newHashSet(10), HashSet.newHashSet(10));
+  }
+
+  LegacyTimeslot reserve(BookingEvent.ParticipantMarkedAvailable reserved) {
+    available.add(new Participant(reserved.participantId(), reserved.participantType()));
+
+    return new LegacyTimeslot(bookings, available);
+  }
+
+  LegacyTimeslot unreserve(BookingEvent.ParticipantUnmarkedAvailable unreserved) {
+    available.remove(new Participant(unreserved.participantId(), unreserved.participantType()));
+
+    return new LegacyTimeslot(bookings, available);
+  }
+
+  LegacyTimeslot book(BookingEvent.ParticipantBooked booked) {
+    Participant p = new Participant(booked.participantId(), booked.participantType());
+    available.remove(p);
+    bookings.add(new Booking(p, booked.bookingId()));
+
+    return new LegacyTimeslot(bookings, available);
+  }
+
+  LegacyTimeslot cancelBooking(String bookingId) {
+    Set<Booking> books =
+        bookings.stream().filter(b -> !b.bookingId().equals(bookingId)).collect(Collectors.toSet());
+    return new LegacyTimeslot(books, available);
+  }
+}
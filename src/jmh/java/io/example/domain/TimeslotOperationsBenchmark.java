@@ -0,0 +1,116 @@
+package io.example.domain;
+
+import io.example.domain.Participant.ParticipantType;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Times single Timeslot operations against a slot holding `size` bookings and
+// `size` waiting participants of each type. Every operation should cost about
+// the same whatever the size; a change that makes one of them scan the slot
+// shows up as a line that grows with it. The operations take their arguments
+// in turn from a few dozen prepared ones, so no single key stays hot in cache.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeslotOperationsBenchmark {
+
+  private static final String SLOT_ID = "2025-12-25-10";
+  private static final int PREPARED = 64;
+
+  @Param({"10", "1000", "100000"})
+  public int size;
+
+  private Timeslot slot;
+  private BookingEvent.ParticipantMarkedAvailable[] newcomers;
+  private BookingEvent.ReservationBooked[] bookable;
+  private String[] bookingIds;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(22);
+    String[][] waiting = new String[size][];
+    slot = Timeslot.empty();
+    for (int i = 0; i < size; i++) {
+      String bookingId = uuid(random);
+      String student = uuid(random);
+      String aircraft = uuid(random);
+      String instructor = uuid(random);
+      slot = slot.book(new BookingEvent.ReservationBooked(SLOT_ID, bookingId, student, aircraft, instructor));
+      waiting[i] = new String[] {uuid(random), uuid(random), uuid(random)};
+      slot = slot
+          .reserve(new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, waiting[i][0], ParticipantType.STUDENT))
+          .reserve(new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, waiting[i][1], ParticipantType.AIRCRAFT))
+          .reserve(new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, waiting[i][2], ParticipantType.INSTRUCTOR));
+    }
+    List<String> booked = slot.bookings().stream().map(Timeslot.Booking::bookingId).distinct().toList();
+
+    newcomers = new BookingEvent.ParticipantMarkedAvailable[PREPARED];
+    bookable = new BookingEvent.ReservationBooked[PREPARED];
+    bookingIds = new String[PREPARED];
+    for (int i = 0; i < PREPARED; i++) {
+      newcomers[i] = new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, uuid(random), ParticipantType.STUDENT);
+      String[] trio = waiting[random.nextInt(size)];
+      bookable[i] = new BookingEvent.ReservationBooked(SLOT_ID, uuid(random), trio[0], trio[1], trio[2]);
+      bookingIds[i] = booked.get(random.nextInt(booked.size()));
+    }
+  }
+
+  @Benchmark
+  public Timeslot reserve() {
+    return slot.reserve(newcomers[next()]);
+  }
+
+  @Benchmark
+  public Timeslot book() {
+    return slot.book(bookable[next()]);
+  }
+
+  @Benchmark
+  public boolean isBookable() {
+    BookingEvent.ReservationBooked trio = bookable[next()];
+    return slot.isBookable(trio.studentId(), trio.aircraftId(), trio.instructorId());
+  }
+
+  // A student who isn't waiting, so the check stops at the first lookup
+  @Benchmark
+  public boolean isBookableMiss() {
+    BookingEvent.ReservationBooked trio = bookable[next()];
+    return slot.isBookable(newcomers[next].participantId(), trio.aircraftId(), trio.instructorId());
+  }
+
+  @Benchmark
+  public List<Timeslot.Booking> findBooking() {
+    return slot.findBooking(bookingIds[next()]);
+  }
+
+  @Benchmark
+  public Timeslot cancelBooking() {
+    return slot.cancelBooking(bookingIds[next()]);
+  }
+
+  private int next() {
+    next = (next + 1) % PREPARED;
+    return next;
+  }
+
+  private static String uuid(Random random) {
+    return new UUID(random.nextLong(), random.nextLong()).toString();
+  }
+}
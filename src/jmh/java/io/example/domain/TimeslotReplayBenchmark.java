@@ -0,0 +1,143 @@
+package io.example.domain;
+
+import io.example.domain.Participant.ParticipantType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Replays a booking slot's event journal the way BookingSlotEntity.applyEvent
+// does on recovery, through the legacy HashSet-backed Timeslot and the current
+// persistent one. Each booking cycle marks three participants available, books
+// them, cancels the booking made `openBookings` cycles earlier, and moves a
+// spare aircraft in and out of availability. compositeReplay replays the same
+// history written with ReservationBooked/ReservationCanceled, as bookSlot and
+// cancelBooking now persist it. Run with -prof gc for allocation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeslotReplayBenchmark {
+
+  private static final String SLOT_ID = "2025-12-25-10";
+
+  @Param({"10000", "100000", "1000000"})
+  public int events;
+
+  // Bookings left standing at any point in the replay
+  @Param({"16", "1024"})
+  public int openBookings;
+
+  private List<BookingEvent> journal;
+  private List<BookingEvent> compositeJournal;
+
+  @Setup
+  public void setUp() {
+    journal = journal(events, openBookings, false);
+    compositeJournal = journal(events, openBookings, true);
+  }
+
+  @Benchmark
+  public LegacyTimeslot legacyReplay() {
+    LegacyTimeslot slot = LegacyTimeslot.empty();
+    for (BookingEvent event : journal) {
+      slot = switch (event) {
+        case BookingEvent.ParticipantMarkedAvailable e -> slot.reserve(e);
+        case BookingEvent.ParticipantUnmarkedAvailable e -> slot.unreserve(e);
+        case BookingEvent.ParticipantBooked e -> slot.book(e);
+        case BookingEvent.ParticipantCanceled e -> slot.cancelBooking(e.bookingId());
+        // The composite events came after the legacy Timeslot
+        case BookingEvent.ReservationBooked e -> throw new IllegalArgumentException(e.toString());
+        case BookingEvent.ReservationCanceled e -> throw new IllegalArgumentException(e.toString());
+      };
+    }
+    return slot;
+  }
+
+  @Benchmark
+  public Timeslot persistentReplay() {
+    return replay(journal);
+  }
+
+  @Benchmark
+  public Timeslot compositeReplay() {
+    return replay(compositeJournal);
+  }
+
+  private static Timeslot replay(List<BookingEvent> journal) {
+    Timeslot slot = Timeslot.empty();
+    for (BookingEvent event : journal) {
+      slot = switch (event) {
+        case BookingEvent.ParticipantMarkedAvailable e -> slot.reserve(e);
+        case BookingEvent.ParticipantUnmarkedAvailable e -> slot.unreserve(e);
+        case BookingEvent.ParticipantBooked e -> slot.book(e);
+        case BookingEvent.ParticipantCanceled e -> slot.cancelBooking(e.bookingId());
+        case BookingEvent.ReservationBooked e -> slot.book(e);
+        case BookingEvent.ReservationCanceled e -> slot.cancelBooking(e.bookingId());
+      };
+    }
+    return slot;
+  }
+
+  // With composite set, a booking cycle is 6 events instead of 10, so the same
+  // number of events covers more history
+  public static List<BookingEvent> journal(int events, int openBookings, boolean composite) {
+    Random random = new Random(17);
+    List<String[]> bookings = new ArrayList<>();
+    List<String> spares = new ArrayList<>();
+    List<BookingEvent> journal = new ArrayList<>(events + 16);
+
+    for (int cycle = 0; journal.size() < events; cycle++) {
+      String[] booking = {
+        uuid(random), uuid(random), uuid(random), uuid(random)
+      };
+      bookings.add(booking);
+      journal.add(new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, booking[0], ParticipantType.STUDENT));
+      journal.add(new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, booking[1], ParticipantType.AIRCRAFT));
+      journal.add(new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, booking[2], ParticipantType.INSTRUCTOR));
+      if (composite) {
+        journal.add(new BookingEvent.ReservationBooked(SLOT_ID, booking[3], booking[0], booking[1], booking[2]));
+      } else {
+        journal.add(new BookingEvent.ParticipantBooked(SLOT_ID, booking[0], ParticipantType.STUDENT, booking[3]));
+        journal.add(new BookingEvent.ParticipantBooked(SLOT_ID, booking[1], ParticipantType.AIRCRAFT, booking[3]));
+        journal.add(new BookingEvent.ParticipantBooked(SLOT_ID, booking[2], ParticipantType.INSTRUCTOR, booking[3]));
+      }
+
+      String spare = uuid(random);
+      spares.add(spare);
+      journal.add(new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, spare, ParticipantType.AIRCRAFT));
+
+      if (cycle >= openBookings) {
+        String[] old = bookings.get(cycle - openBookings);
+        if (composite) {
+          journal.add(new BookingEvent.ReservationCanceled(SLOT_ID, old[3], old[0], old[1], old[2]));
+        } else {
+          journal.add(new BookingEvent.ParticipantCanceled(SLOT_ID, old[0], ParticipantType.STUDENT, old[3]));
+          journal.add(new BookingEvent.ParticipantCanceled(SLOT_ID, old[1], ParticipantType.AIRCRAFT, old[3]));
+          journal.add(new BookingEvent.ParticipantCanceled(SLOT_ID, old[2], ParticipantType.INSTRUCTOR, old[3]));
+        }
+        journal.add(new BookingEvent.ParticipantUnmarkedAvailable(
+            SLOT_ID, spares.get(cycle - openBookings), ParticipantType.AIRCRAFT));
+      }
+    }
+    return List.copyOf(journal.subList(0, events));
+  }
+
+  private static String uuid(Random random) {
+    return new UUID(random.nextLong(), random.nextLong()).toString();
+  }
+}
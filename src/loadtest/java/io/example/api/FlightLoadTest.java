@@ -0,0 +1,376 @@
+package io.example.api;
+
+import akka.javasdk.http.StrictResponse;
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import akka.javasdk.testkit.TestModelProvider;
+import akka.util.ByteString;
+import io.example.application.BookingWorkflow.BookingState;
+import io.example.application.BookingWorkflow.Status;
+import io.example.application.FlightConditionsAgent;
+import io.example.application.FlightConditionsEvaluator;
+import io.example.application.StubForecastServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Drives FlightEndpoint at a fixed request rate with a mix of operations and
+// reports latency percentiles and throughput per operation. Forecasts come from
+// a StubForecastServer and the flight conditions agent from a
+// TestModelProvider, so nothing leaves the machine. Run with
+//
+//   mvn -Pload-test test -Dload.rps=200 -Dload.mix=mark=40,book=20,cancel=10,query=30
+//
+// Requests are sent open loop, on a fixed schedule whatever the responses do,
+// and latency is measured from when a request was due rather than when it was
+// sent, so a stalled service shows up as latency instead of fewer requests.
+// Booking is asynchronous: book measures createBooking's 202, and each
+// accepted booking is then polled until its workflow reaches an outcome. The
+// time from when the booking was due to seeing its outcome is reported
+// separately for booked, rejected and failed bookings, and for those with no
+// outcome after OUTCOME_TIMEOUT.
+//
+// mark marks the next participant of a student, aircraft and instructor trio
+// available in one of the next 48 hourly slots; book books a trio once all
+// three are marked; cancel cancels a booking made at least a second before;
+// query reads a booking slot. Book and cancel with nothing to work on are
+// counted as starved rather than sent.
+public class FlightLoadTest extends TestKitSupport {
+
+    private static final int SLOTS = 48;
+    private static final Duration CANCEL_AFTER = Duration.ofSeconds(1);
+    private static final Duration POLL_EVERY = Duration.ofMillis(50);
+    private static final Duration OUTCOME_TIMEOUT = Duration.ofSeconds(30);
+
+    private final int rps = Integer.getInteger("load.rps", 50);
+    private final Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup-seconds", 10));
+    private final Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 60));
+    private final Map<Operation, Integer> mix = mix(System.getProperty("load.mix", "mark=50,book=15,cancel=5,query=30"));
+
+    private final StubForecastServer forecastServer = StubForecastServer.start()
+            .withLatency(
+                    Duration.ofMillis(Integer.getInteger("load.weather.latency-ms", 50)),
+                    Duration.ofMillis(Integer.getInteger("load.weather.jitter-ms", 50)))
+            .withErrors(Double.parseDouble(System.getProperty("load.weather.error-rate", "0")), 503);
+    private final TestModelProvider flightConditionsModel = new TestModelProvider();
+
+    private final List<String> slotIds = slotIds();
+    private final AtomicLong participants = new AtomicLong();
+    private final Map<Long, AtomicInteger> trioMarks = new ConcurrentHashMap<>();
+    private final Queue<Trio> bookable = new ConcurrentLinkedQueue<>();
+    private final Queue<Booked> booked = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor();
+
+    @Override
+    protected TestKit.Settings testKitSettings() {
+        return TestKit.Settings.DEFAULT
+                .withAdditionalConfig("""
+                        akka.javasdk.agent.openai.api-key = n/a
+                        weather.base-url = "%s"
+                        weather.api-key = load-test
+                        flight-conditions.prefetch.enabled = false
+                        """.formatted(forecastServer.baseUrl()))
+                .withModelProvider(FlightConditionsAgent.class, flightConditionsModel);
+    }
+
+    @AfterAll
+    public void stopForecastServer() {
+        poller.shutdownNow();
+        forecastServer.close();
+    }
+
+    @Test
+    public void bookingMix() throws InterruptedException {
+        // Only asked when the forecast can't settle a slot, e.g. with injected errors
+        flightConditionsModel.fixedResponse("""
+                {"timeSlotId": "load-test", "meetsRequirements": true}
+                """);
+
+        run(warmup, new Recorder());
+        Recorder recorder = new Recorder();
+        run(duration, recorder);
+
+        System.out.println(recorder.report(duration));
+        System.out.printf(Locale.ROOT, "target %d req/s, forecast stub: %d requests, %d failed%n",
+                rps, forecastServer.requests(), forecastServer.failures());
+        assertThat(recorder.completed()).isPositive();
+    }
+
+    // Fires requests for `length` at the target rate, then waits for the
+    // stragglers before returning
+    private void run(Duration length, Recorder recorder) throws InterruptedException {
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long requests = length.toNanos() / periodNanos;
+        long start = System.nanoTime();
+        AtomicLong fired = new AtomicLong();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleAtFixedRate(() -> {
+            long n = fired.getAndIncrement();
+            if (n < requests) {
+                send(pick(), start + n * periodNanos, recorder);
+            }
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+        while (fired.get() < requests) {
+            Thread.sleep(100);
+        }
+        scheduler.shutdownNow();
+        recorder.awaitOutstanding(OUTCOME_TIMEOUT.plus(POLL_EVERY.multipliedBy(2)));
+    }
+
+    private void send(Operation operation, long dueNanos, Recorder recorder) {
+        CompletionStage<StrictResponse<ByteString>> response = switch (operation) {
+            case MARK -> mark();
+            case BOOK -> book(dueNanos, recorder);
+            case CANCEL -> cancel();
+            case QUERY -> httpClient.GET("/flight/availability/" + randomSlot()).invokeAsync();
+        };
+        if (response == null) {
+            recorder.starved(operation);
+            return;
+        }
+        recorder.sent();
+        response.whenComplete((result, error) -> recorder.record(
+                operation, System.nanoTime() - dueNanos, error == null && result.status().intValue() < 300));
+    }
+
+    private CompletionStage<StrictResponse<ByteString>> mark() {
+        long participant = participants.getAndIncrement();
+        long trio = participant / 3;
+        String type = switch ((int) (participant % 3)) {
+            case 0 -> "student";
+            case 1 -> "aircraft";
+            default -> "instructor";
+        };
+        String slotId = slotIds.get((int) (trio % SLOTS));
+        return httpClient.POST("/flight/availability/" + slotId)
+                .withRequestBody(new FlightEndpoint.AvailabilityRequest(type + "-" + trio, type))
+                .invokeAsync()
+                .whenComplete((result, error) -> {
+                    if (error == null && result.status().intValue() < 300
+                            && trioMarks.computeIfAbsent(trio, t -> new AtomicInteger()).incrementAndGet() == 3) {
+                        trioMarks.remove(trio);
+                        bookable.add(new Trio(slotId, trio));
+                    }
+                });
+    }
+
+    private CompletionStage<StrictResponse<ByteString>> book(long dueNanos, Recorder recorder) {
+        Trio trio = bookable.poll();
+        if (trio == null) {
+            return null;
+        }
+        String bookingId = UUID.randomUUID().toString();
+        return httpClient.POST("/flight/bookings/" + trio.slotId())
+                .withRequestBody(new FlightEndpoint.BookingRequest(
+                        "student-" + trio.id(), "aircraft-" + trio.id(), "instructor-" + trio.id(), bookingId))
+                .invokeAsync()
+                .whenComplete((result, error) -> {
+                    if (error == null && result.status().intValue() < 300) {
+                        recorder.awaitingOutcome();
+                        pollOutcome(trio.slotId(), bookingId, dueNanos, recorder);
+                    }
+                });
+    }
+
+    // Follows an accepted booking through GET /flight/bookings until its
+    // workflow has ended; booked ones become available to cancel
+    private void pollOutcome(String slotId, String bookingId, long dueNanos, Recorder recorder) {
+        poller.schedule(() -> httpClient.GET("/flight/bookings/" + slotId + "/" + bookingId)
+                .responseBodyAs(BookingState.class)
+                .invokeAsync()
+                .whenComplete((result, error) -> {
+                    long now = System.nanoTime();
+                    Status status = error == null ? result.body().status() : null;
+                    if (status == Status.BOOKED || status == Status.REJECTED || status == Status.FAILED) {
+                        recorder.outcome(status.name().toLowerCase(Locale.ROOT), now - dueNanos);
+                        if (status == Status.BOOKED) {
+                            booked.add(new Booked(slotId, bookingId, now));
+                        }
+                    } else if (now - dueNanos > OUTCOME_TIMEOUT.toNanos()) {
+                        recorder.outcome("unresolved", now - dueNanos);
+                    } else {
+                        pollOutcome(slotId, bookingId, dueNanos, recorder);
+                    }
+                }), POLL_EVERY.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private CompletionStage<StrictResponse<ByteString>> cancel() {
+        Booked booking = booked.peek();
+        if (booking == null || System.nanoTime() - booking.bookedAt() < CANCEL_AFTER.toNanos()
+                || !booked.remove(booking)) {
+            return null;
+        }
+        return httpClient.DELETE("/flight/bookings/" + booking.slotId() + "/" + booking.bookingId()).invokeAsync();
+    }
+
+    private Operation pick() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int n = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+            n -= weight.getValue();
+            if (n < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("empty mix");
+    }
+
+    private String randomSlot() {
+        return slotIds.get(ThreadLocalRandom.current().nextInt(SLOTS));
+    }
+
+    // The next SLOTS hours, starting two hours out so that none of them falls
+    // into the past during a run
+    private static List<String> slotIds() {
+        LocalDateTime first = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(2);
+        List<String> slotIds = new ArrayList<>(SLOTS);
+        for (int i = 0; i < SLOTS; i++) {
+            slotIds.add(FlightConditionsEvaluator.slotId(first.plusHours(i)));
+        }
+        return slotIds;
+    }
+
+    private static Map<Operation, Integer> mix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] weight = part.trim().split("=");
+            mix.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+
+    enum Operation {
+        MARK, BOOK, CANCEL, QUERY
+    }
+
+    private record Trio(String slotId, long id) {
+    }
+
+    private record Booked(String slotId, String bookingId, long bookedAt) {
+    }
+
+    // Latencies per operation, kept whole so the percentiles are exact
+    private static final class Recorder {
+
+        private static final List<String> OUTCOMES = List.of("booked", "rejected", "failed", "unresolved");
+
+        private final Map<Operation, Queue<Long>> latencies = new EnumMap<>(Operation.class);
+        private final Map<String, Queue<Long>> outcomes = new ConcurrentHashMap<>();
+        private final Map<Operation, AtomicLong> failed = new EnumMap<>(Operation.class);
+        private final Map<Operation, AtomicLong> starved = new EnumMap<>(Operation.class);
+        private final AtomicLong outstanding = new AtomicLong();
+
+        Recorder() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new ConcurrentLinkedQueue<>());
+                failed.put(operation, new AtomicLong());
+                starved.put(operation, new AtomicLong());
+            }
+            for (String outcome : OUTCOMES) {
+                outcomes.put(outcome, new ConcurrentLinkedQueue<>());
+            }
+        }
+
+        void sent() {
+            outstanding.incrementAndGet();
+        }
+
+        void starved(Operation operation) {
+            starved.get(operation).incrementAndGet();
+        }
+
+        void record(Operation operation, long nanos, boolean succeeded) {
+            latencies.get(operation).add(nanos);
+            if (!succeeded) {
+                failed.get(operation).incrementAndGet();
+            }
+            outstanding.decrementAndGet();
+        }
+
+        void awaitingOutcome() {
+            outstanding.incrementAndGet();
+        }
+
+        void outcome(String outcome, long nanos) {
+            outcomes.get(outcome).add(nanos);
+            outstanding.decrementAndGet();
+        }
+
+        long completed() {
+            return latencies.values().stream().mapToLong(Queue::size).sum();
+        }
+
+        void awaitOutstanding(Duration timeout) throws InterruptedException {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+        }
+
+        String report(Duration duration) {
+            StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                    "%n%-8s %9s %8s %8s %10s %9s %9s %9s%n",
+                    "", "completed", "failed", "starved", "req/s", "p50 ms", "p99 ms", "max ms"));
+            List<Long> all = new ArrayList<>();
+            for (Operation operation : Operation.values()) {
+                List<Long> values = new ArrayList<>(latencies.get(operation));
+                all.addAll(values);
+                line(report, operation.name().toLowerCase(Locale.ROOT), values, failed.get(operation).get(),
+                        starved.get(operation).get(), duration);
+            }
+            long totalFailed = failed.values().stream().mapToLong(AtomicLong::get).sum();
+            long totalStarved = starved.values().stream().mapToLong(AtomicLong::get).sum();
+            line(report, "all", all, totalFailed, totalStarved, duration);
+
+            report.append(String.format(Locale.ROOT,
+                    "%nbook, from due to outcome%n%-10s %9s %9s %9s %9s%n", "", "count", "p50 ms", "p99 ms", "max ms"));
+            for (String outcome : OUTCOMES) {
+                long[] sorted = outcomes.get(outcome).stream().mapToLong(Long::longValue).sorted().toArray();
+                report.append(String.format(Locale.ROOT, "%-10s %9d %9.1f %9.1f %9.1f%n",
+                        outcome, sorted.length, percentile(sorted, 0.50), percentile(sorted, 0.99),
+                        sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6));
+            }
+            return report.toString();
+        }
+
+        private static void line(
+                StringBuilder report, String name, List<Long> values, long failed, long starved, Duration duration) {
+            long[] sorted = values.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            report.append(String.format(Locale.ROOT, "%-8s %9d %8d %8d %10.1f %9.1f %9.1f %9.1f%n",
+                    name, sorted.length, failed, starved, sorted.length / (double) duration.toSeconds(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99),
+                    sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6));
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package io.example;
+
+import akka.javasdk.DependencyProvider;
+import akka.javasdk.ServiceSetup;
+import akka.javasdk.annotations.Setup;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timer.TimerScheduler;
+import com.typesafe.config.Config;
+import io.example.application.AdmissionControl;
+import io.example.application.ConditionsReportCache;
+import io.example.application.FlightConditionsEvaluator;
+import io.example.application.ForecastPrefetchAction;
+import io.example.application.GoogleWeatherService;
+import io.example.application.ParticipantSlotFanOut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Wires up the dependencies that have to be shared by every component instance
+@Setup
+public class Bootstrap implements ServiceSetup {
+
+    private static final Logger logger = LoggerFactory.getLogger(Bootstrap.class);
+
+    private final GoogleWeatherService weatherService;
+    private final FlightConditionsEvaluator conditionsEvaluator;
+    private final ConditionsReportCache reportCache;
+    private final ParticipantSlotFanOut participantSlotFanOut;
+    private final AdmissionControl bookingAdmission;
+    private final Config config;
+    private final ComponentClient componentClient;
+    private final TimerScheduler timerScheduler;
+
+    public Bootstrap(Config config, ComponentClient componentClient, TimerScheduler timerScheduler) {
+        this.config = config;
+        this.componentClient = componentClient;
+        this.timerScheduler = timerScheduler;
+        this.weatherService = new GoogleWeatherService(
+                config.getString("weather.base-url"), config.getString("weather.api-key"));
+        this.conditionsEvaluator = new FlightConditionsEvaluator(weatherService);
+        Config cacheConfig = config.getConfig("flight-conditions.report-cache");
+        this.reportCache = new ConditionsReportCache(
+                cacheConfig.getInt("max-entries"), cacheConfig.getDuration("max-age"));
+        weatherService.onForecastChange(reportCache::invalidateHours);
+        this.participantSlotFanOut = new ParticipantSlotFanOut(
+                componentClient, config.getInt("participant-slot-updates.max-in-flight"));
+        Config admissionConfig = config.getConfig("flight-bookings.admission");
+        this.bookingAdmission = new AdmissionControl(
+                "create_booking",
+                admissionConfig.getInt("max-in-flight"),
+                admissionConfig.getInt("max-queued"),
+                admissionConfig.getDuration("max-queue-wait"),
+                admissionConfig.getDuration("retry-after"));
+    }
+
+    @Override
+    public void onStartup() {
+        if (!config.getBoolean("flight-conditions.prefetch.enabled")) {
+            return;
+        }
+        if (config.getString("weather.api-key").isEmpty()
+                && config.getString("weather.base-url").equals(GoogleWeatherService.DEFAULT_BASE_URL)) {
+            logger.warn("Not prefetching forecasts: weather.api-key is not set");
+            return;
+        }
+        ForecastPrefetchAction.schedule(
+                timerScheduler, componentClient, config.getDuration("flight-conditions.prefetch.initial-delay"));
+    }
+
+    @Override
+    public DependencyProvider createDependencyProvider() {
+        return new DependencyProvider() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getDependency(Class<T> clazz) {
+                if (clazz == GoogleWeatherService.class) {
+                    return (T) weatherService;
+                }
+                if (clazz == FlightConditionsEvaluator.class) {
+                    return (T) conditionsEvaluator;
+                }
+                if (clazz == ConditionsReportCache.class) {
+                    return (T) reportCache;
+                }
+                if (clazz == ParticipantSlotFanOut.class) {
+                    return (T) participantSlotFanOut;
+                }
+                if (clazz == AdmissionControl.class) {
+                    return (T) bookingAdmission;
+                }
+                throw new IllegalArgumentException("No such dependency found: " + clazz);
+            }
+        };
+    }
+}
@@ -1,11 +1,22 @@
 package io.example.api;
 
-import java.util.Collections;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
+import akka.NotUsed;
+import akka.http.javadsl.model.HttpHeader;
 import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCodes;
 import akka.javasdk.annotations.Acl;
 import akka.javasdk.annotations.http.Delete;
 import akka.javasdk.annotations.http.Get;
@@ -15,101 +26,489 @@ import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.AbstractHttpEndpoint;
 import akka.javasdk.http.HttpException;
 import akka.javasdk.http.HttpResponses;
+import akka.javasdk.http.QueryParams;
+import akka.stream.javadsl.Source;
+import com.typesafe.config.Config;
+import io.opentelemetry.api.trace.Span;
+import io.example.application.AdmissionControl;
+import io.example.application.AsyncLimiter;
+import io.example.application.BookableSlotsView;
+import io.example.application.BookableSlotsView.BookableRange;
+import io.example.application.BookableSlotsView.BookableSlots;
+import io.example.application.BookableSlotsView.ParticipantsInRange;
+import io.example.application.BookingSlotEntity;
+import io.example.application.BookingWorkflow;
+import io.example.application.BookingWorkflow.BookingState;
+import io.example.application.FlightConditionsEvaluator;
+import io.example.application.ParticipantCalendarEntity;
+import io.example.application.ParticipantScheduleEntity;
+import io.example.application.ParticipantSlotsView;
+import io.example.application.ParticipantSlotsView.ParticipantStatusInput;
+import io.example.application.ParticipantSlotsView.ParticipantStatusPageInput;
 import io.example.application.ParticipantSlotsView.SlotList;
+import io.example.application.ParticipantSlotsView.SlotPage;
+import io.example.application.ParticipantSlotsView.SlotRow;
+import io.example.domain.DaySchedule;
+import io.example.domain.Participant;
+import io.example.domain.ParticipantCalendar.CalendarSlot;
 import io.example.domain.Participant.ParticipantType;
 import io.example.domain.Timeslot;
 
 @Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
 @HttpEndpoint("/flight")
 public class FlightEndpoint extends AbstractHttpEndpoint {
-    private final Logger log = LoggerFactory.getLogger(FlightEndpoint.class);
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SEARCH_DAYS = 31;
 
     private final ComponentClient componentClient;
+    private final AdmissionControl bookingAdmission;
+    private final int batchMaxItems;
+    private final int batchParallelism;
+    private final RequestLog requestLog;
 
-    public FlightEndpoint(ComponentClient componentClient) {
+    public FlightEndpoint(ComponentClient componentClient, AdmissionControl bookingAdmission, Config config) {
         this.componentClient = componentClient;
+        this.bookingAdmission = bookingAdmission;
+        this.batchMaxItems = config.getInt("flight-availability.batch.max-items");
+        this.batchParallelism = config.getInt("flight-availability.batch.parallelism");
+        this.requestLog = new RequestLog(config.getInt("flight-endpoint.request-log.sample-every"));
     }
 
-    // Creates a new booking. All three identified participants will
-    // be considered booked for the given timeslot, if they are all
-    // "available" at the time of booking.
+    // Starts a booking. All three identified participants will be considered
+    // booked for the given timeslot if they are all "available" and the flight
+    // conditions allow it. The booking runs as a BookingWorkflow; the response
+    // carries its status, and GET on the booking follows it to the outcome.
+    // While the condition checks of earlier bookings are backed up, new ones
+    // are turned away with 429 or 503 and a Retry-After; a booking that was
+    // already started is still answered.
     @Post("/bookings/{slotId}")
     public HttpResponse createBooking(String slotId, BookingRequest request) {
-        log.info("Creating booking for slot {}: {}", slotId, request);
+        return RouteMetrics.of("create_booking").time(() -> {
+            requestLog.sample("create_booking")
+                    .addKeyValue("slotId", slotId)
+                    .addKeyValue("bookingId", request.bookingId())
+                    .log("Creating booking");
+
+            if (isBlank(request.bookingId()) || isBlank(request.studentId())
+                    || isBlank(request.aircraftId()) || isBlank(request.instructorId())) {
+                throw HttpException.badRequest("bookingId, studentId, aircraftId and instructorId are required");
+            }
 
-        // Implementation here
+            // Starting a booking again is answered by its workflow, so only a
+            // request that would be turned away needs to know whether it is new
+            Optional<AdmissionControl.Rejection> rejection =
+                    bookingAdmission.admit(() -> bookingExists(slotId, request.bookingId()));
+            if (rejection.isPresent()) {
+                // Counted in admission_rejections_total, so sampled like the rest
+                requestLog.sample("create_booking")
+                        .addKeyValue("slotId", slotId)
+                        .addKeyValue("bookingId", request.bookingId())
+                        .addKeyValue("reason", rejection.get().reason())
+                        .log("Turning away booking");
+                return rejected(rejection.get());
+            }
 
-        // Make sure to get a flight conditions report from the AI agent and use that
-        // to decide if the booking can be created
+            // The runtime carries the request's trace on into the workflow and
+            // everything it calls. This span is a child of the request's span and
+            // times the workflow start; it is not made current, so the workflow's
+            // spans hang off the request rather than off it. It is there to tag
+            // the trace with the booking, so the trace can be found by booking ID
+            Optional<Span> span = requestContext().tracing().startSpan("create booking");
+            span.ifPresent(started -> started
+                    .setAttribute("booking.id", request.bookingId())
+                    .setAttribute("booking.slot_id", slotId));
+            try {
+                BookingState state = componentClient
+                        .forWorkflow(BookingWorkflow.workflowId(slotId, request.bookingId()))
+                        .method(BookingWorkflow::start)
+                        .invoke(new BookingWorkflow.Start(
+                                slotId, request.bookingId(), request.studentId(), request.aircraftId(),
+                                request.instructorId()));
+                return HttpResponses.accepted(state);
+            } finally {
+                span.ifPresent(Span::end);
+            }
+        });
+    }
 
-        return HttpResponses.created();
+    // Asking a workflow that was never started for its state is an error. Any
+    // other failure to find out counts as not found too, which only means the
+    // request is turned away as it would have been anyway.
+    private boolean bookingExists(String slotId, String bookingId) {
+        try {
+            componentClient
+                    .forWorkflow(BookingWorkflow.workflowId(slotId, bookingId))
+                    .method(BookingWorkflow::getState)
+                    .invoke();
+            return true;
+        } catch (RuntimeException notFoundOrUnknown) {
+            return false;
+        }
+    }
+
+    // Status of a booking started through createBooking
+    @Get("/bookings/{slotId}/{bookingId}")
+    public BookingState getBooking(String slotId, String bookingId) {
+        return RouteMetrics.of("get_booking").time(() -> componentClient
+                .forWorkflow(BookingWorkflow.workflowId(slotId, bookingId))
+                .method(BookingWorkflow::getState)
+                .invoke());
     }
 
     // Cancels an existing booking. Note that both the slot
-    // ID and the booking ID are required.
+    // ID and the booking ID are required. The booking slot cancels it, then
+    // the booking's workflow is told, so getBooking reports it CANCELED.
     @Delete("/bookings/{slotId}/{bookingId}")
     public HttpResponse cancelBooking(String slotId, String bookingId) {
-        log.info("Canceling booking id {}", bookingId);
+        return RouteMetrics.of("cancel_booking").time(() -> {
+            requestLog.sample("cancel_booking")
+                    .addKeyValue("slotId", slotId)
+                    .addKeyValue("bookingId", bookingId)
+                    .log("Canceling booking");
 
-        // Add booking cancellation code
+            componentClient
+                    .forEventSourcedEntity(slotId)
+                    .method(BookingSlotEntity::cancelBooking)
+                    .invoke(bookingId);
+            componentClient
+                    .forWorkflow(BookingWorkflow.workflowId(slotId, bookingId))
+                    .method(BookingWorkflow::markCanceled)
+                    .invoke();
 
-        return HttpResponses.ok();
+            return HttpResponses.ok();
+        });
     }
 
     // Retrieves all slots in which a given participant has the supplied status.
     // Used to retrieve bookings and slots in which the participant is available
     @Get("/slots/{participantId}/{status}")
     public SlotList slotsByStatus(String participantId, String status) {
+        return RouteMetrics.of("slots_by_status").time(() -> componentClient
+                .forView()
+                .method(ParticipantSlotsView::getSlotsByParticipantAndStatus)
+                .invoke(new ParticipantStatusInput(participantId, status.trim().toLowerCase())));
+    }
+
+    // Paginated variant of slotsByStatus, ordered by slot ID. Takes optional
+    // pageSize and pageToken query parameters; pass the returned nextPageToken
+    // back as pageToken for the following page.
+    @Get("/slots/{participantId}/{status}/page")
+    public SlotPage slotsByStatusPage(String participantId, String status) {
+        return RouteMetrics.of("slots_by_status_page").time(() -> {
+            QueryParams params = requestContext().queryParams();
+            int pageSize = params.getInteger("pageSize").orElse(DEFAULT_PAGE_SIZE);
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw HttpException.badRequest("pageSize must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            return componentClient
+                    .forView()
+                    .method(ParticipantSlotsView::getSlotPageByParticipantAndStatus)
+                    .invoke(new ParticipantStatusPageInput(
+                            participantId, status.trim().toLowerCase(), params.getString("pageToken").orElse(""),
+                            pageSize));
+        });
+    }
 
-        // Add view query
+    // Streaming variant of slotsByStatus: every matching slot is sent as a
+    // server-sent event as the view produces it, ordered by slot ID
+    @Get("/slots/{participantId}/{status}/stream")
+    public HttpResponse slotsByStatusStream(String participantId, String status) {
+        return RouteMetrics.of("slots_by_status_stream").time(() -> {
+            Source<SlotRow, NotUsed> slots = componentClient
+                    .forView()
+                    .stream(ParticipantSlotsView::streamSlotsByParticipantAndStatus)
+                    .source(new ParticipantStatusInput(participantId, status.trim().toLowerCase()));
+            return HttpResponses.serverSentEvents(slots);
+        });
+    }
 
-        return new SlotList(Collections.emptyList());
+    // Change feed for one participant: the participant's current slots, then
+    // every slot again whenever its status changes, as server-sent events
+    @Get("/slot-changes/participant/{participantId}")
+    public HttpResponse slotChangesByParticipant(String participantId) {
+        return RouteMetrics.of("slot_changes_by_participant").time(() -> HttpResponses.serverSentEvents(componentClient
+                .forView()
+                .stream(ParticipantSlotsView::streamSlotChangesByParticipant)
+                .source(participantId)));
     }
 
-    // Returns the internal availability state for a given slot
-    @Get("/availability/{slotId}")
-    public Timeslot getSlot(String slotId) {
+    // Change feed for one status: the slots currently in it, then every slot
+    // that moves into it, as server-sent events
+    @Get("/slot-changes/status/{status}")
+    public HttpResponse slotChangesByStatus(String status) {
+        return RouteMetrics.of("slot_changes_by_status").time(() -> HttpResponses.serverSentEvents(componentClient
+                .forView()
+                .stream(ParticipantSlotsView::streamSlotChangesByStatus)
+                .source(status.trim().toLowerCase())));
+    }
+
+    // Finds the slots between the from and to dates (YYYY-MM-DD, both included)
+    // where a booking can be made: with studentId, aircraftId and instructorId
+    // query parameters, slots where those three are all available; without
+    // them, slots where at least one participant of each type is.
+    @Get("/bookable-slots")
+    public BookableSlots bookableSlots() {
+        return RouteMetrics.of("bookable_slots").time(() -> {
+            QueryParams params = requestContext().queryParams();
+            LocalDate from = date(params, "from");
+            LocalDate to = date(params, "to");
+            if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_SEARCH_DAYS) {
+                throw HttpException.badRequest(
+                        "to must be on or after from, and at most " + MAX_SEARCH_DAYS + " days on");
+            }
+            String fromSlotId = FlightConditionsEvaluator.slotId(from.atStartOfDay());
+            String toSlotId = FlightConditionsEvaluator.slotId(to.atTime(23, 0));
+
+            Optional<String> studentId = params.getString("studentId").filter(id -> !id.isBlank());
+            Optional<String> aircraftId = params.getString("aircraftId").filter(id -> !id.isBlank());
+            Optional<String> instructorId = params.getString("instructorId").filter(id -> !id.isBlank());
+            if (studentId.isEmpty() && aircraftId.isEmpty() && instructorId.isEmpty()) {
+                return componentClient
+                        .forView()
+                        .method(BookableSlotsView::getBookableSlots)
+                        .invoke(new BookableRange(fromSlotId, toSlotId));
+            }
+            if (studentId.isEmpty() || aircraftId.isEmpty() || instructorId.isEmpty()) {
+                throw HttpException.badRequest("give all of studentId, aircraftId and instructorId, or none");
+            }
+            return componentClient
+                    .forView()
+                    .method(BookableSlotsView::getSlotsBookableBy)
+                    .invoke(new ParticipantsInRange(
+                            studentId.get(), aircraftId.get(), instructorId.get(), fromSlotId, toSlotId));
+        });
+    }
+
+    // A participant's day: the hours (0-23) of the slots they are available in
+    // and booked in, from a single read of their schedule for the date
+    @Get("/schedule/{participantId}/{date}")
+    public ScheduleResponse schedule(String participantId, String date) {
+        return RouteMetrics.of("schedule").time(() -> {
+            LocalDate day;
+            try {
+                day = LocalDate.parse(date);
+            } catch (DateTimeParseException ex) {
+                throw HttpException.badRequest("date must be YYYY-MM-DD");
+            }
+            DaySchedule schedule = componentClient
+                    .forKeyValueEntity(ParticipantScheduleEntity.scheduleId(participantId, day))
+                    .method(ParticipantScheduleEntity::getSchedule)
+                    .invoke();
+            return new ScheduleResponse(
+                    participantId, day.toString(), schedule.availableHours(), schedule.bookedHours());
+        });
+    }
 
-        // Add entity state request
+    // A participant's slots between the from and to dates (YYYY-MM-DD, both
+    // included), optionally only those with the given status, read from their
+    // calendars rather than from ParticipantSlotsView
+    @Get("/calendar/{participantId}")
+    public CompletionStage<CalendarResponse> calendar(String participantId) {
+        return RouteMetrics.of("calendar").timeAsync(() -> {
+            QueryParams params = requestContext().queryParams();
+            LocalDate from = date(params, "from");
+            LocalDate to = date(params, "to");
+            if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_SEARCH_DAYS) {
+                throw HttpException.badRequest(
+                        "to must be on or after from, and at most " + MAX_SEARCH_DAYS + " days on");
+            }
+            String status = params.getString("status").map(value -> value.trim().toLowerCase()).orElse(null);
+            var query = new ParticipantCalendarEntity.SlotQuery(
+                    FlightConditionsEvaluator.slotId(from.atStartOfDay()),
+                    FlightConditionsEvaluator.slotId(to.atTime(23, 0)),
+                    status);
 
-        return new Timeslot(Collections.emptySet(),
-                Collections.emptySet());
+            List<CompletableFuture<List<CalendarSlot>>> months = new ArrayList<>();
+            for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to));
+                    month = month.plusMonths(1)) {
+                months.add(componentClient
+                        .forEventSourcedEntity(ParticipantCalendarEntity.calendarId(
+                                participantId, month.atDay(1).atStartOfDay()))
+                        .method(ParticipantCalendarEntity::getSlots)
+                        .invokeAsync(query)
+                        .toCompletableFuture());
+            }
+            return CompletableFuture.allOf(months.toArray(CompletableFuture[]::new))
+                    .thenApply(nothing -> new CalendarResponse(participantId, months.stream()
+                            .flatMap(month -> month.join().stream())
+                            .toList()));
+        });
+    }
+
+    // Returns the bookings and available participants of a given slot
+    @Get("/availability/{slotId}")
+    public SlotResponse getSlot(String slotId) {
+        return RouteMetrics.of("get_slot").time(() -> SlotResponse.of(componentClient
+                .forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::getSlot)
+                .invoke()));
     }
 
     // Indicates that the supplied participant is available for booking
     // within the indicated time slot
     @Post("/availability/{slotId}")
     public HttpResponse markAvailable(String slotId, AvailabilityRequest request) {
-        ParticipantType participantType;
+        return RouteMetrics.of("mark_available").time(() -> {
+            ParticipantType participantType;
 
-        try {
-            participantType = ParticipantType.valueOf(request.participantType().trim().toUpperCase());
-        } catch (IllegalArgumentException ex) {
-            log.warn("Bad participant type {}", request.participantType());
-            throw HttpException.badRequest("invalid participant type");
-        }
+            try {
+                participantType = ParticipantType.valueOf(request.participantType().trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                throw HttpException.badRequest("invalid participant type");
+            }
 
-        log.info("Marking timeslot available for entity {}", slotId);
+            requestLog.sample("mark_available")
+                    .addKeyValue("slotId", slotId)
+                    .addKeyValue("participantId", request.participantId())
+                    .log("Marking slot available");
 
-        // Add entity client to mark slot available
+            componentClient
+                    .forEventSourcedEntity(slotId)
+                    .method(BookingSlotEntity::markSlotAvailable)
+                    .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(
+                            new Participant(request.participantId(), participantType)));
 
-        return HttpResponses.ok();
+            return HttpResponses.ok();
+        });
     }
 
     // Unmarks a slot as available for the given participant.
     @Delete("/availability/{slotId}")
     public HttpResponse unmarkAvailable(String slotId, AvailabilityRequest request) {
-        ParticipantType participantType;
+        return RouteMetrics.of("unmark_available").time(() -> {
+            ParticipantType participantType;
+            try {
+                participantType = ParticipantType.valueOf(request.participantType().trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                throw HttpException.badRequest("invalid participant type");
+            }
+
+            requestLog.sample("unmark_available")
+                    .addKeyValue("slotId", slotId)
+                    .addKeyValue("participantId", request.participantId())
+                    .log("Unmarking slot available");
+
+            componentClient
+                    .forEventSourcedEntity(slotId)
+                    .method(BookingSlotEntity::unmarkSlotAvailable)
+                    .invoke(new BookingSlotEntity.Command.UnmarkSlotAvailable(
+                            new Participant(request.participantId(), participantType)));
+
+            return HttpResponses.ok();
+        });
+    }
+
+    // Marks many slots available in one call: a list of (slotId, participant)
+    // items, one participant over an inclusive range of hourly slots, or both.
+    // Items go to their booking slots concurrently, up to the configured
+    // parallelism, and each one gets its own result; a failed item doesn't fail
+    // the batch.
+    @Post("/availability:batch")
+    public CompletionStage<BatchAvailabilityResponse> markAvailableBatch(BatchAvailabilityRequest request) {
+        return RouteMetrics.of("mark_available_batch").timeAsync(() -> {
+            List<BatchItem> items = batchItems(request);
+            requestLog.sample("mark_available_batch")
+                    .addKeyValue("items", items.size())
+                    .log("Marking slots available in a batch");
+
+            AsyncLimiter limiter = new AsyncLimiter(batchParallelism);
+            List<CompletableFuture<BatchItemResult>> results = items.stream()
+                    .map(item -> limiter.submit(() -> markItemAvailable(item)).toCompletableFuture())
+                    .toList();
+            return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                    .thenApply(nothing -> BatchAvailabilityResponse.of(
+                            results.stream().map(CompletableFuture::join).toList()));
+        });
+    }
+
+    private List<BatchItem> batchItems(BatchAvailabilityRequest request) {
+        if (request == null) {
+            throw HttpException.badRequest("items or range is required");
+        }
+        List<BatchItem> items = new ArrayList<>();
+        if (request.items() != null) {
+            items.addAll(request.items());
+        }
+        SlotRangeRequest range = request.range();
+        if (range != null) {
+            Optional<LocalDateTime> from = FlightConditionsEvaluator.slotTime(range.fromSlotId());
+            Optional<LocalDateTime> to = FlightConditionsEvaluator.slotTime(range.toSlotId());
+            if (from.isEmpty() || to.isEmpty() || to.get().isBefore(from.get())) {
+                throw HttpException.badRequest("range needs fromSlotId and toSlotId, in order");
+            }
+            for (LocalDateTime slot = from.get(); !slot.isAfter(to.get()) && items.size() <= batchMaxItems;
+                    slot = slot.plusHours(1)) {
+                items.add(new BatchItem(
+                        FlightConditionsEvaluator.slotId(slot), range.participantId(), range.participantType()));
+            }
+        }
+        if (items.isEmpty()) {
+            throw HttpException.badRequest("items or range is required");
+        }
+        if (items.size() > batchMaxItems) {
+            throw HttpException.badRequest("a batch can mark at most " + batchMaxItems + " slots");
+        }
+        return items;
+    }
+
+    private CompletionStage<BatchItemResult> markItemAvailable(BatchItem item) {
+        Optional<ParticipantType> participantType =
+                item == null ? Optional.empty() : participantType(item.participantType());
+        if (participantType.isEmpty() || isBlank(item.slotId()) || isBlank(item.participantId())) {
+            return CompletableFuture.completedFuture(
+                    BatchItemResult.failed(item, "slotId, participantId and a valid participantType are required"));
+        }
+        return componentClient
+                .forEventSourcedEntity(item.slotId())
+                .method(BookingSlotEntity::markSlotAvailable)
+                .invokeAsync(new BookingSlotEntity.Command.MarkSlotAvailable(
+                        new Participant(item.participantId(), participantType.get())))
+                .handle((done, error) -> {
+                    if (error == null) {
+                        return BatchItemResult.ok(item);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    return BatchItemResult.failed(item, cause.getMessage());
+                });
+    }
+
+    private static HttpResponse rejected(AdmissionControl.Rejection rejection) {
+        var status = switch (rejection.reason()) {
+            case QUEUE_FULL -> StatusCodes.TOO_MANY_REQUESTS;
+            case QUEUE_TOO_SLOW -> StatusCodes.SERVICE_UNAVAILABLE;
+        };
+        long retryAfterSeconds = Math.max(1, rejection.retryAfter().toSeconds());
+        return HttpResponse.create()
+                .withStatus(status)
+                .addHeader(HttpHeader.parse("Retry-After", Long.toString(retryAfterSeconds)))
+                .withEntity("too many bookings in progress, retry later");
+    }
+
+    private static LocalDate date(QueryParams params, String name) {
         try {
-            participantType = ParticipantType.valueOf(request.participantType().trim().toUpperCase());
-        } catch (IllegalArgumentException ex) {
-            log.warn("Bad participant type {}", request.participantType());
-            throw HttpException.badRequest("invalid participant type");
+            return LocalDate.parse(params.getString(name)
+                    .orElseThrow(() -> HttpException.badRequest(name + " is required")));
+        } catch (DateTimeParseException ex) {
+            throw HttpException.badRequest(name + " must be a date, YYYY-MM-DD");
         }
+    }
 
-        // Add codce to unmark slot as available
+    private static Optional<ParticipantType> participantType(String value) {
+        if (isBlank(value)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(ParticipantType.valueOf(value.trim().toUpperCase()));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
 
-        return HttpResponses.ok();
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 
     // Public API representation of a booking request
@@ -117,7 +516,55 @@ public class FlightEndpoint extends AbstractHttpEndpoint {
             String studentId, String aircraftId, String instructorId, String bookingId) {
     }
 
+    public record ScheduleResponse(
+            String participantId, String date, List<Integer> availableHours, List<Integer> bookedHours) {
+    }
+
+    public record CalendarResponse(String participantId, List<CalendarSlot> slots) {
+    }
+
+    // Public API representation of a slot: the Timeslot's bookings and available
+    // participants, without the recent bookings it keeps to recognise retries
+    public record SlotResponse(Set<Timeslot.Booking> bookings, Set<Participant> available) {
+        static SlotResponse of(Timeslot slot) {
+            return new SlotResponse(slot.bookings(), slot.available());
+        }
+    }
+
     // Public API representation of an availability mark/unmark request
     public record AvailabilityRequest(String participantId, String participantType) {
     }
+
+    // Public API representation of a batch of availability marks. Either list
+    // may be left out.
+    public record BatchAvailabilityRequest(List<BatchItem> items, SlotRangeRequest range) {
+    }
+
+    public record BatchItem(String slotId, String participantId, String participantType) {
+    }
+
+    // Every hourly slot from fromSlotId to toSlotId, both included
+    public record SlotRangeRequest(
+            String participantId, String participantType, String fromSlotId, String toSlotId) {
+    }
+
+    public record BatchItemResult(
+            String slotId, String participantId, String participantType, boolean succeeded, String error) {
+        static BatchItemResult ok(BatchItem item) {
+            return new BatchItemResult(item.slotId(), item.participantId(), item.participantType(), true, null);
+        }
+
+        static BatchItemResult failed(BatchItem item, String error) {
+            return item == null
+                    ? new BatchItemResult(null, null, null, false, error)
+                    : new BatchItemResult(item.slotId(), item.participantId(), item.participantType(), false, error);
+        }
+    }
+
+    public record BatchAvailabilityResponse(int succeeded, int failed, List<BatchItemResult> results) {
+        static BatchAvailabilityResponse of(List<BatchItemResult> results) {
+            int succeeded = (int) results.stream().filter(BatchItemResult::succeeded).count();
+            return new BatchAvailabilityResponse(succeeded, results.size() - succeeded, results);
+        }
+    }
 }
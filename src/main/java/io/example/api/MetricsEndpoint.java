@@ -0,0 +1,24 @@
+package io.example.api;
+
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpResponse;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import io.example.application.Metrics;
+
+// The service's own metrics (see Metrics) for Prometheus, or anything that
+// scrapes its text format such as an OpenTelemetry collector's prometheus
+// receiver. Only other services in the project may call it; metrics are not
+// for the internet, and a scraper outside the project gets a 403. It serves
+// only this node's metrics, so scrape each node rather than the service address.
+@Acl(allow = @Acl.Matcher(service = "*"))
+@HttpEndpoint("/metrics")
+public class MetricsEndpoint extends AbstractHttpEndpoint {
+
+    @Get
+    public HttpResponse metrics() {
+        return HttpResponse.create().withEntity(ContentTypes.TEXT_PLAIN_UTF8, Metrics.prometheusText());
+    }
+}
@@ -0,0 +1,44 @@
+package io.example.api;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+
+// Sampled request logging for FlightEndpoint. One request in sampleEvery,
+// picked at random, is logged at INFO on io.example.api.requests, the rest at
+// DEBUG, so setting that logger to DEBUG logs every request. Requests are
+// logged as a message plus key-value pairs (route, slotId, bookingId, ...)
+// that the JSON encoder in include-loggers.xml writes as fields. Pass IDs
+// rather than whole request bodies: an unsampled request then costs a random
+// number and a few calls on a no-op builder.
+final class RequestLog {
+
+    static final String LOGGER = "io.example.api.requests";
+
+    private final Logger logger;
+    private final int sampleEvery;
+
+    // sampleEvery 1 logs every request at INFO, 0 none
+    RequestLog(int sampleEvery) {
+        this(LoggerFactory.getLogger(LOGGER), sampleEvery);
+    }
+
+    RequestLog(Logger logger, int sampleEvery) {
+        if (sampleEvery < 0) {
+            throw new IllegalArgumentException("sampleEvery must not be negative: " + sampleEvery);
+        }
+        this.logger = logger;
+        this.sampleEvery = sampleEvery;
+    }
+
+    LoggingEventBuilder sample(String route) {
+        LoggingEventBuilder event = sampled() ? logger.atInfo() : logger.atDebug();
+        return event.addKeyValue("route", route);
+    }
+
+    private boolean sampled() {
+        return sampleEvery == 1 || sampleEvery > 1 && ThreadLocalRandom.current().nextInt(sampleEvery) == 0;
+    }
+}
@@ -0,0 +1,77 @@
+package io.example.api;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import akka.http.javadsl.model.HttpResponse;
+import akka.javasdk.http.HttpException;
+import io.example.application.Metrics;
+
+// Request count by response status and latency of one HTTP route. Endpoints
+// have no interceptor to hang this on, so each route runs its handler through
+// RouteMetrics.of(route).time (or timeAsync for handlers that answer with a
+// CompletionStage). For routes that answer with a stream, the latency is the
+// time to the start of the stream.
+final class RouteMetrics {
+
+    private static final ConcurrentMap<String, RouteMetrics> ROUTES = new ConcurrentHashMap<>();
+
+    private final String route;
+    private final Metrics.Histogram seconds;
+    private final ConcurrentMap<Integer, Metrics.Counter> requests = new ConcurrentHashMap<>();
+
+    private RouteMetrics(String route) {
+        this.route = route;
+        this.seconds = Metrics.histogram("http_request_seconds", "Time to answer a request, by route",
+                Metrics.LATENCY_BUCKETS, "route", route);
+    }
+
+    static RouteMetrics of(String route) {
+        return ROUTES.computeIfAbsent(route, RouteMetrics::new);
+    }
+
+    <T> T time(Supplier<T> handler) {
+        long started = System.nanoTime();
+        try {
+            T result = handler.get();
+            record(started, status(result));
+            return result;
+        } catch (RuntimeException e) {
+            record(started, status(e));
+            throw e;
+        }
+    }
+
+    <T> CompletionStage<T> timeAsync(Supplier<? extends CompletionStage<T>> handler) {
+        long started = System.nanoTime();
+        CompletionStage<T> result;
+        try {
+            result = handler.get();
+        } catch (RuntimeException e) {
+            record(started, status(e));
+            throw e;
+        }
+        return result.whenComplete((value, error) -> record(started, error == null ? status(value) : status(error)));
+    }
+
+    private void record(long started, int status) {
+        seconds.observeNanos(System.nanoTime() - started);
+        requests.computeIfAbsent(status, code -> Metrics.counter("http_requests_total",
+                "Requests answered, by route and response status",
+                "route", route, "status", Integer.toString(code))).increment();
+    }
+
+    private static int status(Object result) {
+        return result instanceof HttpResponse response ? response.status().intValue() : 200;
+    }
+
+    private static int status(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error instanceof HttpException httpError ? httpError.getStatusCode().intValue() : 500;
+    }
+}
@@ -0,0 +1,82 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+// Guards an expensive route by the backlog of the work it causes. The work
+// itself (for bookings, the condition checks that may call the model) runs
+// through submit, at most maxInFlight at a time with the rest queued. New
+// requests are turned away by admit while that queue is full or its oldest
+// entry has waited too long, so they fail fast instead of adding to a backlog
+// that can't be served in time. Other routes don't go through it.
+public final class AdmissionControl {
+
+    private final AsyncLimiter limiter;
+    private final int maxQueued;
+    private final Duration maxQueueWait;
+    private final Duration retryAfter;
+    private final Metrics.Counter queueFull;
+    private final Metrics.Counter queueTooSlow;
+
+    public AdmissionControl(String route, int maxInFlight, int maxQueued, Duration maxQueueWait, Duration retryAfter) {
+        this.limiter = new AsyncLimiter(maxInFlight);
+        this.maxQueued = maxQueued;
+        this.maxQueueWait = maxQueueWait;
+        this.retryAfter = retryAfter;
+        Metrics.gauge("admission_in_flight", "Work admitted for the route and running", limiter::inFlight,
+                "route", route);
+        Metrics.gauge("admission_queued", "Work admitted for the route and waiting to run", limiter::queued,
+                "route", route);
+        Metrics.gauge("admission_oldest_wait_seconds", "How long the oldest waiting work has waited",
+                () -> limiter.oldestWaitNanos() / 1e9, "route", route);
+        this.queueFull = rejections(route, Reason.QUEUE_FULL);
+        this.queueTooSlow = rejections(route, Reason.QUEUE_TOO_SLOW);
+    }
+
+    // Empty when a new request may go ahead
+    public Optional<Rejection> admit() {
+        return admit(() -> false);
+    }
+
+    // As admit, but a request that alreadyStarted says is not new goes ahead
+    // too. alreadyStarted is only asked when the request would be turned away,
+    // so requests that are admitted anyway don't pay for it.
+    public Optional<Rejection> admit(BooleanSupplier alreadyStarted) {
+        Reason reason;
+        if (limiter.queued() >= maxQueued) {
+            reason = Reason.QUEUE_FULL;
+        } else if (limiter.oldestWaitNanos() > maxQueueWait.toNanos()) {
+            reason = Reason.QUEUE_TOO_SLOW;
+        } else {
+            return Optional.empty();
+        }
+        if (alreadyStarted.getAsBoolean()) {
+            return Optional.empty();
+        }
+        (reason == Reason.QUEUE_FULL ? queueFull : queueTooSlow).increment();
+        return Optional.of(new Rejection(reason, retryAfter));
+    }
+
+    // Work of requests already admitted always runs eventually, however long the queue
+    public <T> CompletionStage<T> submit(Supplier<? extends CompletionStage<T>> work) {
+        return limiter.submit(work);
+    }
+
+    private static Metrics.Counter rejections(String route, Reason reason) {
+        return Metrics.counter("admission_rejections_total", "Requests turned away by admission control",
+                "route", route, "reason", reason.name().toLowerCase());
+    }
+
+    public enum Reason {
+        // Too much work waiting: the client should slow down
+        QUEUE_FULL,
+        // Work is waiting longer than it should: the service can't keep up
+        QUEUE_TOO_SLOW
+    }
+
+    public record Rejection(Reason reason, Duration retryAfter) {
+    }
+}
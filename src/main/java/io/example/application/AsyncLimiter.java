@@ -0,0 +1,115 @@
+package io.example.application;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+// Caps the number of asynchronous operations in flight. Operations submitted
+// beyond the limit are queued and started in submission order as earlier ones
+// complete, so callers never block waiting for a permit.
+public final class AsyncLimiter {
+
+    private final int maxInFlight;
+    // Guarded by `this`
+    private final Deque<Waiting> waiting = new ArrayDeque<>();
+    private int inFlight;
+    // Whether some thread is in drain(), starting queued operations
+    private boolean draining;
+
+    public AsyncLimiter(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    public <T> CompletionStage<T> submit(Supplier<? extends CompletionStage<T>> operation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletionStage<T> stage;
+            try {
+                stage = operation.get();
+            } catch (RuntimeException e) {
+                stage = CompletableFuture.failedFuture(e);
+            }
+            stage.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+                release();
+            });
+        };
+
+        boolean startNow;
+        boolean drain = false;
+        synchronized (this) {
+            startNow = !draining && waiting.isEmpty() && inFlight < maxInFlight;
+            if (startNow) {
+                inFlight++;
+            } else {
+                waiting.addLast(new Waiting(start, System.nanoTime()));
+                if (!draining && inFlight < maxInFlight) {
+                    draining = drain = true;
+                }
+            }
+        }
+        if (startNow) {
+            start.run();
+        } else if (drain) {
+            drain();
+        }
+        return result;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queued() {
+        return waiting.size();
+    }
+
+    // How long the operation at the head of the queue has been waiting, 0 when none is
+    public synchronized long oldestWaitNanos() {
+        Waiting oldest = waiting.peekFirst();
+        return oldest == null ? 0 : System.nanoTime() - oldest.queuedAt();
+    }
+
+    private void release() {
+        synchronized (this) {
+            inFlight--;
+            if (draining || waiting.isEmpty()) {
+                return;
+            }
+            draining = true;
+        }
+        drain();
+    }
+
+    // Starts queued operations while there are permits, on the calling thread.
+    // Only one thread drains at a time: an operation that completes while it is
+    // being started only gives back its permit, and this loop starts the next
+    // one, so a long queue of operations that complete immediately is worked
+    // through iteratively rather than one nested call deeper each.
+    private void drain() {
+        while (true) {
+            Waiting next;
+            synchronized (this) {
+                if (waiting.isEmpty() || inFlight >= maxInFlight) {
+                    draining = false;
+                    return;
+                }
+                next = waiting.pollFirst();
+                inFlight++;
+            }
+            next.start().run();
+        }
+    }
+
+    private record Waiting(Runnable start, long queuedAt) {
+    }
+}
@@ -0,0 +1,127 @@
+package io.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.annotations.Table;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant.ParticipantType;
+import java.util.ArrayList;
+import java.util.List;
+
+// One row per booking slot with the participants currently waiting in it, by
+// type, kept from the booking slot events. It answers "where can these three
+// (or any three) fly together" in a single query, instead of clients guessing
+// slot IDs and trying createBooking until one succeeds.
+@Component(id = "view-bookable-slots")
+public class BookableSlotsView extends View {
+
+    @Table("bookable_slots")
+    @Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+    public static class BookableSlotsUpdater extends TableUpdater<SlotAvailability> {
+
+        // Mirrors Timeslot: marking adds a waiting participant, unmarking and
+        // booking remove it, and cancellations don't make anyone available again
+        public Effect<SlotAvailability> onEvent(BookingEvent event) {
+            SlotAvailability row = rowState() == null ? SlotAvailability.empty(event.slotId()) : rowState();
+            return switch (event) {
+                case BookingEvent.ParticipantMarkedAvailable e ->
+                    effects().updateRow(row.with(e.participantId(), e.participantType()));
+                case BookingEvent.ParticipantUnmarkedAvailable e ->
+                    effects().updateRow(row.without(e.participantId(), e.participantType()));
+                case BookingEvent.ParticipantBooked e ->
+                    effects().updateRow(row.without(e.participantId(), e.participantType()));
+                case BookingEvent.ReservationBooked e -> effects().updateRow(row
+                        .without(e.studentId(), ParticipantType.STUDENT)
+                        .without(e.aircraftId(), ParticipantType.AIRCRAFT)
+                        .without(e.instructorId(), ParticipantType.INSTRUCTOR));
+                case BookingEvent.ParticipantCanceled e -> effects().ignore();
+                case BookingEvent.ReservationCanceled e -> effects().ignore();
+            };
+        }
+    }
+
+    // bookable is true when at least one participant of each type is waiting.
+    // It is stored rather than computed so the type-only search filters on one
+    // indexed column.
+    public record SlotAvailability(
+            String slotId,
+            List<String> students,
+            List<String> aircraft,
+            List<String> instructors,
+            boolean bookable) {
+
+        static SlotAvailability empty(String slotId) {
+            return new SlotAvailability(slotId, List.of(), List.of(), List.of(), false);
+        }
+
+        SlotAvailability with(String participantId, ParticipantType participantType) {
+            List<String> ids = ids(participantType);
+            if (ids.contains(participantId)) {
+                return this;
+            }
+            List<String> updated = new ArrayList<>(ids);
+            updated.add(participantId);
+            return replace(participantType, updated);
+        }
+
+        SlotAvailability without(String participantId, ParticipantType participantType) {
+            List<String> ids = ids(participantType);
+            if (!ids.contains(participantId)) {
+                return this;
+            }
+            List<String> updated = new ArrayList<>(ids);
+            updated.remove(participantId);
+            return replace(participantType, updated);
+        }
+
+        private List<String> ids(ParticipantType participantType) {
+            return switch (participantType) {
+                case STUDENT -> students;
+                case AIRCRAFT -> aircraft;
+                case INSTRUCTOR -> instructors;
+            };
+        }
+
+        private SlotAvailability replace(ParticipantType participantType, List<String> ids) {
+            List<String> s = participantType == ParticipantType.STUDENT ? ids : students;
+            List<String> a = participantType == ParticipantType.AIRCRAFT ? ids : aircraft;
+            List<String> i = participantType == ParticipantType.INSTRUCTOR ? ids : instructors;
+            return new SlotAvailability(slotId, s, a, i, !s.isEmpty() && !a.isEmpty() && !i.isEmpty());
+        }
+    }
+
+    // Inclusive range of slot IDs. Slot IDs are YYYY-MM-DD-HH, so they sort by time.
+    public record BookableRange(String fromSlotId, String toSlotId) {
+    }
+
+    public record ParticipantsInRange(
+            String studentId, String aircraftId, String instructorId, String fromSlotId, String toSlotId) {
+    }
+
+    public record BookableSlots(List<SlotAvailability> slots) {
+    }
+
+    @Query("""
+            SELECT * AS slots FROM bookable_slots
+            WHERE bookable = true AND slotId >= :fromSlotId AND slotId <= :toSlotId
+            ORDER BY slotId
+            """)
+    public QueryEffect<BookableSlots> getBookableSlots(BookableRange range) {
+        return queryResult();
+    }
+
+    @Query("""
+            SELECT * AS slots FROM bookable_slots
+            WHERE :studentId = ANY(students)
+              AND :aircraftId = ANY(aircraft)
+              AND :instructorId = ANY(instructors)
+              AND slotId >= :fromSlotId AND slotId <= :toSlotId
+            ORDER BY slotId
+            """)
+    public QueryEffect<BookableSlots> getSlotsBookableBy(ParticipantsInRange input) {
+        return queryResult();
+    }
+}
@@ -1,13 +1,21 @@
 package io.example.application;
 
 import akka.Done;
+import akka.javasdk.JsonSupport;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.eventsourcedentity.EventSourcedEntity;
 import akka.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.example.domain.BookingEvent;
 import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
 import io.example.domain.Timeslot;
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,49 +25,226 @@ public class BookingSlotEntity extends EventSourcedEntity<Timeslot, BookingEvent
     private final String entityId;
     private static final Logger logger = LoggerFactory.getLogger(BookingSlotEntity.class);
 
+    // Recovery loads the latest snapshot and replays the events persisted after it
+    // through applyEvent, all before the first command reaches the entity. Tune
+    // akka.javasdk.event-sourced-entity.snapshot-every against these.
+    private static final Metrics.Histogram RECOVERY_SECONDS = Metrics.histogram(
+            "booking_slot_recovery_seconds",
+            "Time from booking slot start to its first command, covering snapshot load and replay",
+            Metrics.LATENCY_BUCKETS);
+    private static final Metrics.Histogram RECOVERY_EVENTS = Metrics.histogram(
+            "booking_slot_recovery_events",
+            "Events since the last snapshot replayed when a booking slot starts",
+            Metrics.COUNT_BUCKETS);
+    private static final Metrics.Histogram STATE_BYTES = Metrics.histogram(
+            "booking_slot_state_bytes",
+            "Serialized size of a booking slot's Timeslot state after a slow or sampled recovery",
+            Metrics.SIZE_BUCKETS);
+    private static final Metrics.Counter EVENTS_APPLIED = Metrics.counter(
+            "booking_slot_events_applied_total",
+            "Booking events applied to slot state, in replay or after persisting");
+    private static final Metrics.Counter DUPLICATE_BOOKINGS = Metrics.counter(
+            "booking_slot_duplicate_bookings_total",
+            "Booking requests recognised as already made and answered without booking again");
+    // Every command by how it was answered: accepted, or why it was rejected
+    private static final Metrics.Counter MARK_ACCEPTED = commands("mark_available", "accepted");
+    private static final Metrics.Counter MARK_ALREADY_AVAILABLE = commands("mark_available", "already_available");
+    private static final Metrics.Counter MARK_ALREADY_BOOKED = commands("mark_available", "already_booked");
+    private static final Metrics.Counter UNMARK_ACCEPTED = commands("unmark_available", "accepted");
+    private static final Metrics.Counter UNMARK_NOT_AVAILABLE = commands("unmark_available", "not_available");
+    private static final Metrics.Counter BOOK_ACCEPTED = commands("book", "accepted");
+    private static final Metrics.Counter BOOK_DUPLICATE = commands("book", "duplicate");
+    private static final Metrics.Counter BOOK_EXISTS = commands("book", "booking_exists");
+    private static final Metrics.Counter BOOK_NOT_BOOKABLE = commands("book", "not_bookable");
+    private static final Metrics.Counter CANCEL_ACCEPTED = commands("cancel", "accepted");
+    private static final Metrics.Counter CANCEL_NOT_FOUND = commands("cancel", "not_found");
+    private static final Duration SLOW_RECOVERY = Duration.ofSeconds(1);
+    // Serializing the state costs as much as writing a snapshot, so it is only
+    // measured for slow recoveries and this share of the rest
+    private static final double STATE_BYTES_SAMPLE_RATE = 0.01;
+
+    private final long startedAt = System.nanoTime();
+    private boolean recovered;
+    private long eventsReplayed;
+
     public BookingSlotEntity(EventSourcedEntityContext context) {
         this.entityId = context.entityId();
     }
 
     public Effect<Done> markSlotAvailable(Command.MarkSlotAvailable cmd) {
-        return effects().error("not yet implemented");
+        recordRecovery();
+        Participant participant = cmd.participant();
+        if (currentState().isWaiting(participant.id(), participant.participantType())) {
+            MARK_ALREADY_AVAILABLE.increment();
+            return effects().error("participant is already available for this slot");
+        }
+        if (currentState().isBooked(participant.id(), participant.participantType())) {
+            MARK_ALREADY_BOOKED.increment();
+            return effects().error("participant is already booked for this slot");
+        }
+
+        MARK_ACCEPTED.increment();
+        return effects()
+                .persist(new BookingEvent.ParticipantMarkedAvailable(
+                        entityId, participant.id(), participant.participantType()))
+                .thenReply(newState -> Done.done());
     }
 
     public Effect<Done> unmarkSlotAvailable(Command.UnmarkSlotAvailable cmd) {
-        return effects().error("not yet implemented");
+        recordRecovery();
+        Participant participant = cmd.participant();
+        if (!currentState().isWaiting(participant.id(), participant.participantType())) {
+            UNMARK_NOT_AVAILABLE.increment();
+            return effects().error("participant is not available for this slot");
+        }
+
+        UNMARK_ACCEPTED.increment();
+        return effects()
+                .persist(new BookingEvent.ParticipantUnmarkedAvailable(
+                        entityId, participant.id(), participant.participantType()))
+                .thenReply(newState -> Done.done());
     }
 
-    // NOTE: booking a slot should produce 3
-    // `ParticipantBooked` events
+    // A booking is persisted as a single ReservationBooked event carrying all
+    // three participants. A request for a booking the slot made recently, for
+    // the same participants, is a retry: it succeeds again without persisting
+    // anything, even if the booking has been canceled since.
     public Effect<Done> bookSlot(Command.BookReservation cmd) {
-        return effects().error("not yet implemented");
+        recordRecovery();
+        Optional<Timeslot.Reservation> recent = currentState().findRecentBooking(cmd.bookingId());
+        if (recent.isPresent() && recent.get().isFor(cmd.studentId(), cmd.aircraftId(), cmd.instructorId())) {
+            logger.debug("Booking {} was already made in slot {}", cmd.bookingId(), entityId);
+            DUPLICATE_BOOKINGS.increment();
+            BOOK_DUPLICATE.increment();
+            return effects().reply(Done.done());
+        }
+        if (recent.isPresent() || !currentState().findBooking(cmd.bookingId()).isEmpty()) {
+            BOOK_EXISTS.increment();
+            return effects().error("booking " + cmd.bookingId() + " already exists for this slot");
+        }
+        if (!currentState().isBookable(cmd.studentId(), cmd.aircraftId(), cmd.instructorId())) {
+            logger.debug("Slot {} is not bookable for booking {}", entityId, cmd.bookingId());
+            BOOK_NOT_BOOKABLE.increment();
+            return effects().error("not all participants are available for this slot");
+        }
+
+        BOOK_ACCEPTED.increment();
+        return effects()
+                .persist(new BookingEvent.ReservationBooked(
+                        entityId, cmd.bookingId(), cmd.studentId(), cmd.aircraftId(), cmd.instructorId()))
+                .thenReply(newState -> Done.done());
     }
 
-    // NOTE: canceling a booking should produce 3
-    // `ParticipantCanceled` events
+    // A complete booking is canceled with a single ReservationCanceled event.
+    // Anything else (a booking left incomplete by an older journal) falls back
+    // to one ParticipantCanceled event per entry.
     public Effect<Done> cancelBooking(String bookingId) {
-        return effects().error("not yet implemented");
+        recordRecovery();
+        List<Timeslot.Booking> bookings = currentState().findBooking(bookingId);
+        if (bookings.isEmpty()) {
+            CANCEL_NOT_FOUND.increment();
+            return effects().error("booking " + bookingId + " not found for this slot");
+        }
+        CANCEL_ACCEPTED.increment();
+
+        Map<ParticipantType, String> participants = new EnumMap<>(ParticipantType.class);
+        for (Timeslot.Booking booking : bookings) {
+            participants.put(booking.participant().participantType(), booking.participant().id());
+        }
+        if (bookings.size() == 3 && participants.size() == 3) {
+            return effects()
+                    .persist(new BookingEvent.ReservationCanceled(
+                            entityId,
+                            bookingId,
+                            participants.get(ParticipantType.STUDENT),
+                            participants.get(ParticipantType.AIRCRAFT),
+                            participants.get(ParticipantType.INSTRUCTOR)))
+                    .thenReply(newState -> Done.done());
+        }
 
+        List<BookingEvent> events = bookings.stream()
+                .<BookingEvent>map(booking -> new BookingEvent.ParticipantCanceled(
+                        entityId,
+                        booking.participant().id(),
+                        booking.participant().participantType(),
+                        bookingId))
+                .toList();
+        return effects()
+                .persistAll(events)
+                .thenReply(newState -> Done.done());
     }
 
     public ReadOnlyEffect<Timeslot> getSlot() {
-        return effects().error("not yet implemented");
+        recordRecovery();
+        return effects().reply(currentState());
     }
 
     @Override
     public Timeslot emptyState() {
-        return new Timeslot(
-                // NOTE: these are just estimates for capacity based on it being a sample
-                HashSet.newHashSet(10), HashSet.newHashSet(10));
+        return Timeslot.empty();
     }
 
     @Override
     public Timeslot applyEvent(BookingEvent event) {
-//        System.out.println("Applying event " + event);
-//        return switch(event){
-//            case BookingEvent.ParticipantBooked e -> currentState().markSlotAvailable(e.participantId());
-//        };
-        return currentState();
+        EVENTS_APPLIED.increment();
+        if (!recovered) {
+            eventsReplayed++;
+        }
+        return apply(currentState(), event);
+    }
+
+    private static Metrics.Counter commands(String command, String outcome) {
+        return Metrics.counter("booking_slot_commands_total", "Booking slot commands handled, by outcome",
+                "command", command, "outcome", outcome);
+    }
+
+    static Timeslot apply(Timeslot slot, BookingEvent event) {
+        return switch (event) {
+            case BookingEvent.ParticipantMarkedAvailable e -> slot.reserve(e);
+            case BookingEvent.ParticipantUnmarkedAvailable e -> slot.unreserve(e);
+            case BookingEvent.ParticipantBooked e -> slot.book(e);
+            case BookingEvent.ParticipantCanceled e -> slot.cancelBooking(e.bookingId());
+            case BookingEvent.ReservationBooked e -> slot.book(e);
+            case BookingEvent.ReservationCanceled e -> slot.cancelBooking(e.bookingId());
+        };
+    }
+
+    // Called first thing in every command handler, so it runs once recovery is done
+    private void recordRecovery() {
+        if (recovered) {
+            return;
+        }
+        recovered = true;
+        long elapsed = System.nanoTime() - startedAt;
+        RECOVERY_SECONDS.observeNanos(elapsed);
+        RECOVERY_EVENTS.observe(eventsReplayed);
+        boolean slow = elapsed >= SLOW_RECOVERY.toNanos();
+        if (!slow && ThreadLocalRandom.current().nextDouble() >= STATE_BYTES_SAMPLE_RATE) {
+            logger.debug("Slot {} recovered in {} ms, replaying {} events",
+                    entityId, elapsed / 1_000_000, eventsReplayed);
+            return;
+        }
+        int stateBytes = stateBytes();
+        if (stateBytes >= 0) {
+            STATE_BYTES.observe(stateBytes);
+        }
+        if (slow) {
+            logger.warn("Slot {} took {} ms to recover, replaying {} events into {} bytes of state",
+                    entityId, elapsed / 1_000_000, eventsReplayed, stateBytes);
+        } else {
+            logger.debug("Slot {} recovered in {} ms, replaying {} events into {} bytes of state",
+                    entityId, elapsed / 1_000_000, eventsReplayed, stateBytes);
+        }
+    }
+
+    // Measured with the SDK's own mapper, the one that writes the snapshots
+    private int stateBytes() {
+        try {
+            return JsonSupport.getObjectMapper().writeValueAsBytes(currentState()).length;
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not measure state of slot {}", entityId, e);
+            return -1;
+        }
     }
 
     public sealed interface Command {
@@ -0,0 +1,354 @@
+package io.example.application;
+
+import static akka.javasdk.workflow.Workflow.RecoverStrategy.maxRetries;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.workflow.Workflow;
+import com.typesafe.config.Config;
+import io.example.application.FlightConditionsAgent.ConditionsReport;
+import io.example.domain.Timeslot;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Runs one booking of a slot as a sequence of durable steps:
+//
+//   check      - asks for the flight conditions and, at the same time, checks
+//                that the three participants are waiting in the slot
+//   book       - books the slot on the BookingSlotEntity
+//   compensate - settles a booking whose book step failed for good: an
+//                attempt that timed out may have been applied after all, and
+//                then the booking stands
+//
+// Each step has its own timeout and is retried before failing over. The
+// workflow ID is {slotId}-{bookingId}, so starting the same booking twice
+// reports on the one already running instead of running it again. Starting it
+// again with other participants is an error.
+//
+// A booked workflow is paused rather than ended, so that canceling the booking
+// can still move it to CANCELED and its status keeps agreeing with the slot.
+@Component(id = "booking")
+public class BookingWorkflow extends Workflow<BookingWorkflow.BookingState> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingWorkflow.class);
+
+    private static final Metrics.Histogram CHECK_SECONDS = stepSeconds("check");
+    private static final Metrics.Histogram CONDITIONS_SECONDS = stepSeconds("conditions");
+    private static final Metrics.Histogram VALIDATION_SECONDS = stepSeconds("validation");
+    private static final Metrics.Histogram BOOK_SECONDS = stepSeconds("book");
+    private static final Metrics.Histogram COMPENSATE_SECONDS = stepSeconds("compensate");
+    private static final Metrics.Histogram TOTAL_SECONDS = Metrics.histogram(
+            "booking_workflow_seconds",
+            "Time from a booking being started to its workflow ending, whatever the outcome",
+            Metrics.LATENCY_BUCKETS);
+
+    private static final Metrics.Counter CACHED_ANSWERS = FlightConditionsAgent.answers("cached");
+    private static final Metrics.Counter PREFETCHED_ANSWERS = FlightConditionsAgent.answers("prefetched");
+    private static final Metrics.Counter RULE_ANSWERS = FlightConditionsAgent.answers("rule");
+    private static final Metrics.Counter UNSETTLED_ANSWERS = FlightConditionsAgent.answers("unsettled");
+
+    private final ComponentClient componentClient;
+    private final FlightConditionsEvaluator evaluator;
+    private final ConditionsReportCache reportCache;
+    private final AdmissionControl admission;
+    private final boolean ruleBasedEnabled;
+    private final boolean llmFallbackEnabled;
+    private final boolean prefetchEnabled;
+    private final Duration reportMaxAge;
+    private final Config config;
+
+    public BookingWorkflow(
+            ComponentClient componentClient,
+            FlightConditionsEvaluator evaluator,
+            ConditionsReportCache reportCache,
+            AdmissionControl admission,
+            Config config) {
+        this.componentClient = componentClient;
+        this.evaluator = evaluator;
+        this.reportCache = reportCache;
+        this.admission = admission;
+        this.ruleBasedEnabled = config.getBoolean("flight-conditions.rule-based-enabled");
+        this.llmFallbackEnabled = config.getBoolean("flight-conditions.llm-fallback-enabled");
+        this.prefetchEnabled = config.getBoolean("flight-conditions.prefetch.enabled");
+        this.reportMaxAge = config.getDuration("flight-conditions.report-cache.max-age");
+        this.config = config.getConfig("booking-workflow");
+    }
+
+    public static String workflowId(String slotId, String bookingId) {
+        return slotId + "-" + bookingId;
+    }
+
+    @Override
+    public WorkflowSettings settings() {
+        int retries = config.getInt("max-retries");
+        return WorkflowSettings.builder()
+                .defaultStepRecovery(maxRetries(retries).failoverTo(BookingWorkflow::failStep))
+                .stepTimeout(BookingWorkflow::checkStep, config.getDuration("check-timeout"))
+                .stepTimeout(BookingWorkflow::bookStep, config.getDuration("book-timeout"))
+                .stepTimeout(BookingWorkflow::compensateStep, config.getDuration("compensate-timeout"))
+                .stepRecovery(BookingWorkflow::bookStep,
+                        maxRetries(retries).failoverTo(BookingWorkflow::compensateStep))
+                .build();
+    }
+
+    public Effect<BookingState> start(Start start) {
+        if (currentState() != null) {
+            if (!currentState().isFor(start)) {
+                return effects().error("booking " + start.bookingId() + " was already made for other participants");
+            }
+            return effects().reply(currentState());
+        }
+        BookingState state = new BookingState(
+                start.slotId(), start.bookingId(), start.studentId(), start.aircraftId(), start.instructorId(),
+                Status.CHECKING, null, Instant.now());
+        logger.debug("Starting booking {} of slot {}", state.bookingId(), state.slotId());
+        return effects()
+                .updateState(state)
+                .transitionTo(BookingWorkflow::checkStep)
+                .thenReply(state);
+    }
+
+    // Told by the cancel route once the booking slot has canceled the booking.
+    // Only a booked workflow changes; a booking made before bookings ran as
+    // workflows has no state, and is left without one.
+    public Effect<Done> markCanceled() {
+        if (currentState() == null || currentState().status() != Status.BOOKED) {
+            return effects().reply(Done.done());
+        }
+        logger.debug("Booking {} of slot {} canceled", currentState().bookingId(), currentState().slotId());
+        return effects()
+                .updateState(currentState().withStatus(Status.CANCELED, null))
+                .end()
+                .thenReply(Done.done());
+    }
+
+    public Effect<BookingState> getState() {
+        if (currentState() == null) {
+            return effects().error("booking not found");
+        }
+        return effects().reply(currentState());
+    }
+
+    // The conditions report can take a model call, while validation is one read
+    // of the slot, so both are started together. Validation only spares a
+    // booking that can't succeed the wait for the report; bookSlot checks again.
+    private StepEffect checkStep() {
+        long started = System.nanoTime();
+        BookingState state = currentState();
+        try {
+            CompletableFuture<ConditionsReport> conditions = timed(CONDITIONS_SECONDS, conditions(state.slotId()));
+            CompletableFuture<Timeslot> slot = timed(VALIDATION_SECONDS, componentClient
+                    .forEventSourcedEntity(state.slotId())
+                    .method(BookingSlotEntity::getSlot)
+                    .invokeAsync());
+
+            if (!slot.join().isBookable(state.studentId(), state.aircraftId(), state.instructorId())) {
+                return reject(state, "not all participants are available for this slot");
+            }
+            if (!Boolean.TRUE.equals(conditions.join().meetsRequirements())) {
+                return reject(state, "flight conditions do not meet requirements for this slot");
+            }
+            return stepEffects()
+                    .updateState(state.withStatus(Status.BOOKING, null))
+                    .thenTransitionTo(BookingWorkflow::bookStep);
+        } finally {
+            CHECK_SECONDS.observeNanos(System.nanoTime() - started);
+        }
+    }
+
+    private StepEffect bookStep() {
+        long started = System.nanoTime();
+        BookingState state = currentState();
+        try {
+            componentClient
+                    .forEventSourcedEntity(state.slotId())
+                    .method(BookingSlotEntity::bookSlot)
+                    .invoke(new BookingSlotEntity.Command.BookReservation(
+                            state.studentId(), state.aircraftId(), state.instructorId(), state.bookingId()));
+        } catch (RuntimeException e) {
+            // bookSlot answers a retry of an attempt it already applied as a
+            // success, so an error is usually a participant taken since the check
+            Timeslot slot = componentClient
+                    .forEventSourcedEntity(state.slotId())
+                    .method(BookingSlotEntity::getSlot)
+                    .invoke();
+            if (slot.findBooking(state.bookingId()).isEmpty()) {
+                if (!slot.isBookable(state.studentId(), state.aircraftId(), state.instructorId())) {
+                    return reject(state, "not all participants are available for this slot");
+                }
+                throw e;
+            }
+        } finally {
+            BOOK_SECONDS.observeNanos(System.nanoTime() - started);
+        }
+        return end(state.withStatus(Status.BOOKED, null));
+    }
+
+    // Reached when booking failed after its retries. The booking slot may still
+    // have applied one of the attempts. A booking is persisted as one event, so
+    // it is either there whole, with its participants no longer available, or
+    // not at all; if it is there, the booking was made.
+    private StepEffect compensateStep() {
+        long started = System.nanoTime();
+        BookingState state = currentState();
+        boolean booked;
+        try {
+            booked = !componentClient
+                    .forEventSourcedEntity(state.slotId())
+                    .method(BookingSlotEntity::getSlot)
+                    .invoke()
+                    .findBooking(state.bookingId())
+                    .isEmpty();
+        } finally {
+            COMPENSATE_SECONDS.observeNanos(System.nanoTime() - started);
+        }
+        if (booked) {
+            logger.warn("Booking {} of slot {} was made by an attempt that timed out",
+                    state.bookingId(), state.slotId());
+            return end(state.withStatus(Status.BOOKED, null));
+        }
+        return end(state.withStatus(Status.FAILED, "booking could not be completed"));
+    }
+
+    // Reached when check or compensate failed after their retries
+    private StepEffect failStep() {
+        BookingState state = currentState();
+        logger.error("Booking {} of slot {} failed in status {}", state.bookingId(), state.slotId(), state.status());
+        return end(state.withStatus(Status.FAILED, "booking could not be completed"));
+    }
+
+    private StepEffect reject(BookingState state, String reason) {
+        logger.info("Booking {} of slot {} rejected: {}", state.bookingId(), state.slotId(), reason);
+        return end(state.withStatus(Status.REJECTED, reason));
+    }
+
+    private StepEffect end(BookingState state) {
+        TOTAL_SECONDS.observeNanos(Math.max(0, Duration.between(state.startedAt(), Instant.now()).toNanos()));
+        Metrics.counter("booking_workflow_outcomes_total", "Bookings ended, by outcome",
+                "outcome", state.status().name().toLowerCase()).increment();
+        if (state.status() == Status.BOOKED) {
+            // Waits for a cancellation, see markCanceled
+            return stepEffects()
+                    .updateState(state)
+                    .thenPause();
+        }
+        return stepEffects()
+                .updateState(state)
+                .thenEnd();
+    }
+
+    // A report cached on this node first, then one the prefetcher stored for the
+    // slot, then the safety criteria applied to the forecast, which waits on the
+    // forecast fetch without holding a thread or an agent. The agent is only
+    // asked when the forecast can't settle the slot. Those calls go through the
+    // booking route's admission control, whose backlog decides whether new
+    // bookings are accepted.
+    private CompletionStage<ConditionsReport> conditions(String slotId) {
+        Optional<ConditionsReport> cached = reportCache.get(slotId);
+        if (cached.isPresent()) {
+            CACHED_ANSWERS.increment();
+            return CompletableFuture.completedFuture(cached.get());
+        }
+        return prefetched(slotId).thenCompose(prefetched -> {
+            if (prefetched.isPresent()) {
+                PREFETCHED_ANSWERS.increment();
+                reportCache.put(slotId, prefetched.get());
+                return CompletableFuture.completedFuture(prefetched.get());
+            }
+            return evaluated(slotId);
+        });
+    }
+
+    // Without the prefetcher nothing is stored, so there is nothing to read. A
+    // failed read only means the report is worked out again.
+    private CompletionStage<Optional<ConditionsReport>> prefetched(String slotId) {
+        if (!prefetchEnabled) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return componentClient
+                .forKeyValueEntity(slotId)
+                .method(ConditionsReportEntity::get)
+                .invokeAsync()
+                .thenApply(warmed -> warmed.freshAt(Instant.now(), reportMaxAge))
+                .exceptionally(error -> Optional.empty());
+    }
+
+    private CompletionStage<ConditionsReport> evaluated(String slotId) {
+        CompletionStage<Optional<ConditionsReport>> byRule = ruleBasedEnabled
+                ? evaluator.evaluateAsync(slotId)
+                : CompletableFuture.completedFuture(Optional.empty());
+        return byRule.thenCompose(report -> {
+            if (report.isPresent()) {
+                RULE_ANSWERS.increment();
+                reportCache.put(slotId, report.get());
+                return CompletableFuture.completedFuture(report.get());
+            }
+            if (ruleBasedEnabled && !llmFallbackEnabled) {
+                UNSETTLED_ANSWERS.increment();
+                return CompletableFuture.completedFuture(new ConditionsReport(slotId, false));
+            }
+            return admission.submit(() -> componentClient
+                    .forAgent()
+                    .inSession(UUID.randomUUID().toString())
+                    .method(FlightConditionsAgent::query)
+                    .invokeAsync(slotId));
+        });
+    }
+
+    private static <T> CompletableFuture<T> timed(Metrics.Histogram histogram, CompletionStage<T> stage) {
+        long started = System.nanoTime();
+        return stage.toCompletableFuture()
+                .whenComplete((result, error) -> histogram.observeNanos(System.nanoTime() - started));
+    }
+
+    private static Metrics.Histogram stepSeconds(String step) {
+        return Metrics.histogram(
+                "booking_workflow_step_seconds",
+                "Time spent in one attempt of a booking workflow step",
+                Metrics.LATENCY_BUCKETS,
+                "step", step);
+    }
+
+    public enum Status {
+        CHECKING,
+        BOOKING,
+        BOOKED,
+        REJECTED,
+        FAILED,
+        CANCELED
+    }
+
+    // reason says why a booking was rejected or failed
+    public record BookingState(
+            String slotId,
+            String bookingId,
+            String studentId,
+            String aircraftId,
+            String instructorId,
+            Status status,
+            String reason,
+            Instant startedAt) {
+
+        boolean isFor(Start start) {
+            return slotId.equals(start.slotId())
+                    && studentId.equals(start.studentId())
+                    && aircraftId.equals(start.aircraftId())
+                    && instructorId.equals(start.instructorId());
+        }
+
+        BookingState withStatus(Status status, String reason) {
+            return new BookingState(
+                    slotId, bookingId, studentId, aircraftId, instructorId, status, reason, startedAt);
+        }
+    }
+
+    public record Start(String slotId, String bookingId, String studentId, String aircraftId, String instructorId) {
+    }
+}
@@ -0,0 +1,112 @@
+package io.example.application;
+
+import io.example.application.FlightConditionsAgent.ConditionsReport;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded LRU cache of conditions reports keyed by time slot ID, so repeated
+// bookings for a slot skip both the weather lookup and the model. Entries expire
+// after a fixed age and are dropped as soon as the forecast for their hour changes.
+public class ConditionsReportCache {
+
+    private final int maxEntries;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    // Guarded by itself. Access-ordered, so the eldest entry is the least recently used.
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ConditionsReportCache(int maxEntries, Duration maxAge, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ConditionsReportCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        // Registering replaces, so the metrics follow the latest cache
+        Metrics.counter("conditions_report_cache_hits_total", "Report lookups served from the cache", hits::sum);
+        Metrics.counter("conditions_report_cache_misses_total", "Report lookups with no fresh report", misses::sum);
+        Metrics.counter("conditions_report_cache_evictions_total", "Reports dropped to stay under max entries",
+                evictions::sum);
+        Metrics.counter("conditions_report_cache_invalidations_total", "Reports dropped when the forecast changed",
+                invalidations::sum);
+        Metrics.gauge("conditions_report_cache_entries", "Reports held in the cache", () -> stats().size());
+    }
+
+    public ConditionsReportCache(int maxEntries, Duration maxAge) {
+        this(maxEntries, maxAge, Clock.systemUTC());
+    }
+
+    public Optional<ConditionsReport> get(String timeSlotId) {
+        Instant now = clock.instant();
+        synchronized (entries) {
+            Entry entry = entries.get(timeSlotId);
+            if (entry != null && entry.cachedAt().plus(maxAge).isAfter(now)) {
+                hits.increment();
+                return Optional.of(entry.report());
+            }
+            if (entry != null) {
+                entries.remove(timeSlotId);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(String timeSlotId, ConditionsReport report) {
+        int hourKey = FlightConditionsEvaluator.slotTime(timeSlotId)
+                .map(ForecastHoursParser::hourKey)
+                .orElse(-1);
+        Entry entry = new Entry(report, hourKey, clock.instant());
+        synchronized (entries) {
+            entries.put(timeSlotId, entry);
+        }
+    }
+
+    // Drops every report made for one of the given forecast hours. Registered with
+    // GoogleWeatherService.onForecastChange.
+    public void invalidateHours(Set<Integer> hourKeys) {
+        synchronized (entries) {
+            entries.values().removeIf(entry -> {
+                boolean stale = hourKeys.contains(entry.hourKey());
+                if (stale) {
+                    invalidations.increment();
+                }
+                return stale;
+            });
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size);
+    }
+
+    public record Stats(long hits, long misses, long evictions, long invalidations, int size) {
+    }
+
+    private record Entry(ConditionsReport report, int hourKey, Instant cachedAt) {
+    }
+}
@@ -0,0 +1,44 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import io.example.application.FlightConditionsAgent.ConditionsReport;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+// The conditions report ForecastPrefetchAction precomputed for a slot, keyed by
+// slot ID. The ConditionsReportCache only lives on the node that filled it, so
+// the prefetcher stores its reports here as well, where the booking workflow on
+// any node can read them.
+@Component(id = "conditions-report")
+public class ConditionsReportEntity extends KeyValueEntity<ConditionsReportEntity.WarmedReport> {
+
+    @Override
+    public WarmedReport emptyState() {
+        return new WarmedReport(null, null);
+    }
+
+    public Effect<Done> put(ConditionsReport report) {
+        return effects()
+                .updateState(new WarmedReport(report, Instant.now()))
+                .thenReply(Done.done());
+    }
+
+    public ReadOnlyEffect<WarmedReport> get() {
+        return effects().reply(currentState());
+    }
+
+    // report and computedAt are null until the prefetcher has stored a report
+    public record WarmedReport(ConditionsReport report, Instant computedAt) {
+
+        // A report is trusted for as long as the cache would keep it
+        public Optional<ConditionsReport> freshAt(Instant now, Duration maxAge) {
+            if (report == null || computedAt == null || !computedAt.plus(maxAge).isAfter(now)) {
+                return Optional.empty();
+            }
+            return Optional.of(report);
+        }
+    }
+}
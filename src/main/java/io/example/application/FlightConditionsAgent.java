@@ -4,9 +4,14 @@ import akka.javasdk.agent.Agent;
 import akka.javasdk.agent.ModelProvider;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.annotations.FunctionTool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /*
  * The flight conditions agent is responsible for making a determination about the flight
@@ -45,27 +50,60 @@ public class FlightConditionsAgent extends Agent {
             - The 'timeSlotId' in the report must match the one provided in the user message.
             """.stripIndent();
 
-    private final GoogleWeatherService weatherService;
+    private static final Logger logger = LoggerFactory.getLogger(FlightConditionsAgent.class);
 
-    public FlightConditionsAgent() {
-        this.weatherService = new GoogleWeatherService();
-    }
+    private static final Duration WEATHER_TOOL_TIMEOUT = Duration.ofSeconds(30);
 
+    private static final Metrics.Counter CACHED_ANSWERS = answers("cached");
+    private static final Metrics.Counter MODEL_ANSWERS = answers("model");
+    // From handing the request to the model to its report, tool calls included
+    private static final Metrics.Histogram MODEL_SECONDS = Metrics.histogram(
+            "flight_conditions_agent_model_seconds",
+            "Time for the model to produce a conditions report, including its weather tool calls",
+            Metrics.LATENCY_BUCKETS);
 
+    private final GoogleWeatherService weatherService;
+    private final ConditionsReportCache reportCache;
 
-    FlightConditionsAgent(GoogleWeatherService weatherService) {
+    // The weather service is shared across agent instances (see Bootstrap) so its
+    // forecast cache and request limit apply to the whole service
+    public FlightConditionsAgent(GoogleWeatherService weatherService, ConditionsReportCache reportCache) {
         this.weatherService = weatherService;
+        this.reportCache = reportCache;
     }
 
+    // Asks the model. Callers apply the criteria to the forecast themselves first
+    // (see BookingWorkflow), without holding an agent while the forecast is
+    // fetched, and only come here when it can't settle the slot. The report is
+    // cached for later bookings of the same slot.
     public Effect<ConditionsReport> query(String timeSlotId) {
+        Optional<ConditionsReport> cached = reportCache.get(timeSlotId);
+        if (cached.isPresent()) {
+            CACHED_ANSWERS.increment();
+            return effects().reply(cached.get());
+        }
+
+        long asked = System.nanoTime();
         return effects()
                 .model(ModelProvider.googleAiGemini().withApiKey(System.getenv("GOOGLE_API_KEY")))
                 .systemMessage(SYSTEM_MESSAGE)
                 .userMessage("Validate the conditions for time slot " + timeSlotId)
                 .responseAs(ConditionsReport.class)
+                .map(report -> {
+                    MODEL_SECONDS.observeNanos(System.nanoTime() - asked);
+                    MODEL_ANSWERS.increment();
+                    reportCache.put(timeSlotId, report);
+                    return report;
+                })
                 .thenReply();
     }
 
+    static Metrics.Counter answers(String source) {
+        return Metrics.counter("flight_conditions_answers_total",
+                "Conditions reports answered for bookings, by where the answer came from",
+                "source", source);
+    }
+
     /*
      * You can choose to hard code the weather conditions for specific days or you
      * can actually
@@ -76,11 +114,19 @@ public class FlightConditionsAgent extends Agent {
     @FunctionTool(description = "Queries the weather conditions as they are forecasted based on the time slot ID of the training session booking")
     private String getWeatherForecast(String timeSlotId) {
         try {
-            // The timeSlotId is expected to be in ISO_LOCAL_DATE_TIME format (e.g., "2025-12-25T10:00:00")
-            LocalDateTime dateTime = LocalDateTime.parse(timeSlotId, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-            return weatherService.getWeatherForecast(dateTime);
+            // The timeSlotId is expected to be in YYYY-MM-DD-HH or ISO_LOCAL_DATE_TIME
+            // format (e.g., "2025-12-25-10" or "2025-12-25T10:00:00")
+            LocalDateTime dateTime = FlightConditionsEvaluator.slotTime(timeSlotId)
+                    .orElseThrow(() -> new IllegalArgumentException("unrecognized time slot " + timeSlotId));
+            // Tools have to answer synchronously, but the fetch itself runs on the
+            // weather service's async client and this only waits for the result
+            return weatherService.getWeatherForecastAsync(dateTime)
+                    .toCompletableFuture()
+                    .get(WEATHER_TOOL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return "Error: Timed out waiting for the weather forecast";
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.warn("Weather forecast tool failed for slot {}", timeSlotId, e);
             return "Error parsing timeSlotId: " + e.getMessage();
         }
     }
@@ -0,0 +1,93 @@
+package io.example.application;
+
+import io.example.application.FlightConditionsAgent.ConditionsReport;
+import io.example.application.GoogleWeatherService.ForecastHour;
+import io.example.application.GoogleWeatherService.ForecastLookup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+// Applies the flight safety criteria from the agent's system message directly
+// to the forecast data, so most conditions checks never reach the model. When
+// the forecast can't settle the question it says so, and the caller decides
+// whether to fall back to the agent.
+public class FlightConditionsEvaluator {
+
+    // Keep in sync with FlightConditionsAgent.SYSTEM_MESSAGE
+    static final double MAX_WIND_SPEED_KMH = 20;
+    static final int MAX_RAIN_CHANCE = 30;
+    static final int MAX_THUNDERSTORM_CHANCE = 0;
+
+    private static final Duration FORECAST_TIMEOUT = Duration.ofSeconds(30);
+
+    // Slot IDs are YYYY-MM-DD-HH, older callers pass ISO local date-times
+    private static final DateTimeFormatter SLOT_ID_FORMAT = new DateTimeFormatterBuilder()
+            .appendPattern("uuuu-MM-dd-HH")
+            .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+            .toFormatter();
+
+    private final GoogleWeatherService weatherService;
+
+    public FlightConditionsEvaluator(GoogleWeatherService weatherService) {
+        this.weatherService = weatherService;
+    }
+
+    // Completes with a report, or empty when the forecast for the slot is
+    // missing or doesn't arrive in time. Never blocks the caller: on a cache miss
+    // it completes when the weather service's fetch does.
+    public CompletionStage<Optional<ConditionsReport>> evaluateAsync(String timeSlotId) {
+        Optional<LocalDateTime> slotTime = slotTime(timeSlotId);
+        if (slotTime.isEmpty()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        // The lookup may be a fetch shared with other callers, so the timeout
+        // goes on this caller's own stage
+        return weatherService.lookupForecastHourAsync(slotTime.get())
+                .thenApply(lookup -> evaluate(timeSlotId, lookup))
+                .toCompletableFuture()
+                .orTimeout(FORECAST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(error -> Optional.empty());
+    }
+
+    static Optional<ConditionsReport> evaluate(String timeSlotId, ForecastLookup lookup) {
+        return switch (lookup) {
+            case ForecastLookup.Found found ->
+                Optional.of(new ConditionsReport(timeSlotId, meetsRequirements(found.hour())));
+            // Flights can't be booked in the past
+            case ForecastLookup.InPast inPast -> Optional.of(new ConditionsReport(timeSlotId, false));
+            // Too far ahead to predict, so the booking is conditionally approved
+            case ForecastLookup.BeyondForecastWindow beyond -> Optional.of(new ConditionsReport(timeSlotId, true));
+            case ForecastLookup.Unavailable unavailable -> Optional.empty();
+        };
+    }
+
+    static boolean meetsRequirements(ForecastHour hour) {
+        return hour.windSpeed() < MAX_WIND_SPEED_KMH
+                && hour.rainChance() < MAX_RAIN_CHANCE
+                && hour.thunderstormChance() <= MAX_THUNDERSTORM_CHANCE;
+    }
+
+    public static String slotId(LocalDateTime slotTime) {
+        return SLOT_ID_FORMAT.format(slotTime);
+    }
+
+    public static Optional<LocalDateTime> slotTime(String timeSlotId) {
+        try {
+            return Optional.of(LocalDateTime.parse(timeSlotId, SLOT_ID_FORMAT));
+        } catch (DateTimeParseException notASlotId) {
+            try {
+                return Optional.of(LocalDateTime.parse(timeSlotId, DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            } catch (DateTimeParseException notAnIsoDateTime) {
+                return Optional.empty();
+            }
+        }
+    }
+}
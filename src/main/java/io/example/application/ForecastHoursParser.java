@@ -0,0 +1,192 @@
+package io.example.application;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.application.GoogleWeatherService.ForecastHour;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streaming reader for a page of the forecast/hours:lookup response. Rather than
+// building a JSON tree it walks the tokens once, copies the handful of fields the
+// flight conditions check needs into a ForecastHour and skips everything else.
+final class ForecastHoursParser {
+
+    // Pass as the target hour key to read the whole page. It is also the key of an
+    // hour without a start time, so readPage never compares against it.
+    static final int READ_ALL = -1;
+
+    // ObjectMapper is thread-safe once configured, so one instance serves every page
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String[] START_TIME = {"startTime"};
+    private static final String[] CONDITION_TEXT = {"description", "text"};
+    private static final String[] DEGREES = {"degrees"};
+    private static final String[] RAIN_PERCENT = {"probability", "percent"};
+    private static final String[] WIND_SPEED = {"speed", "value"};
+
+    private ForecastHoursParser() {
+    }
+
+    // Hours read from a page, in document order. When a target hour was requested and
+    // found, reading stops there: `target` is set and `nextPageToken` is not known.
+    record Page(List<ForecastHour> hours, String nextPageToken, ForecastHour target) {
+    }
+
+    // Returns null if the body is empty
+    static Page readPage(InputStream body, int targetHourKey) throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(body)) {
+            JsonToken first = parser.nextToken();
+            if (first == null) {
+                return null;
+            }
+            if (first != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a forecast object but found " + first);
+            }
+
+            List<ForecastHour> hours = new ArrayList<>(24);
+            String nextPageToken = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("forecastHours") && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        ForecastHour hour = readHour(parser);
+                        if (targetHourKey != READ_ALL && hour.hourKey() == targetHourKey) {
+                            return new Page(hours, null, hour);
+                        }
+                        hours.add(hour);
+                    }
+                } else if (field.equals("nextPageToken") && value == JsonToken.VALUE_STRING) {
+                    nextPageToken = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (nextPageToken != null && nextPageToken.isEmpty()) {
+                nextPageToken = null;
+            }
+            return new Page(hours, nextPageToken, null);
+        }
+    }
+
+    // Packs the local date and hour into yyyyMMddHH so hours can be compared and
+    // indexed without allocating date objects
+    static int hourKey(LocalDateTime dateTime) {
+        return dateTime.getYear() * 1_000_000
+                + dateTime.getMonthValue() * 10_000
+                + dateTime.getDayOfMonth() * 100
+                + dateTime.getHour();
+    }
+
+    // The API reports start times like 2025-12-10T10:00:00Z. Date and hour are read
+    // straight from their fixed positions, anything unexpected goes through the full
+    // ISO parser. Returns -1 if there is no start time.
+    static int hourKey(String startTime) {
+        if (startTime == null || startTime.isEmpty()) {
+            return -1;
+        }
+        if (startTime.length() >= 13
+                && startTime.charAt(4) == '-'
+                && startTime.charAt(7) == '-'
+                && startTime.charAt(10) == 'T'
+                && isDigits(startTime, 0, 4)
+                && isDigits(startTime, 5, 7)
+                && isDigits(startTime, 8, 10)
+                && isDigits(startTime, 11, 13)) {
+            return Integer.parseInt(startTime, 0, 4, 10) * 1_000_000
+                    + Integer.parseInt(startTime, 5, 7, 10) * 10_000
+                    + Integer.parseInt(startTime, 8, 10, 10) * 100
+                    + Integer.parseInt(startTime, 11, 13, 10);
+        }
+        return hourKey(ZonedDateTime.parse(startTime).toLocalDateTime());
+    }
+
+    private static boolean isDigits(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ForecastHour readHour(JsonParser parser) throws IOException {
+        int hourKey = -1;
+        String condition = "";
+        double temperature = 0;
+        int rainChance = 0;
+        int thunderstormChance = 0;
+        double windSpeed = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "interval" -> hourKey = hourKey(readText(parser, START_TIME));
+                case "weatherCondition" -> condition = readText(parser, CONDITION_TEXT);
+                case "temperature" -> temperature = readNumber(parser, DEGREES);
+                case "precipitation" -> rainChance = (int) readNumber(parser, RAIN_PERCENT);
+                case "thunderstormProbability" -> thunderstormChance = parser.getValueAsInt();
+                case "wind" -> windSpeed = readNumber(parser, WIND_SPEED);
+                default -> parser.skipChildren();
+            }
+        }
+        return new ForecastHour(hourKey, condition, temperature, rainChance, thunderstormChance, windSpeed);
+    }
+
+    private static String readText(JsonParser parser, String[] path) throws IOException {
+        if (!seek(parser, path, 0)) {
+            return "";
+        }
+        String value = parser.getValueAsString("");
+        parser.skipChildren();
+        closeObjects(parser, path.length);
+        return value;
+    }
+
+    private static double readNumber(JsonParser parser, String[] path) throws IOException {
+        if (!seek(parser, path, 0)) {
+            return 0;
+        }
+        double value = parser.getValueAsDouble();
+        parser.skipChildren();
+        closeObjects(parser, path.length);
+        return value;
+    }
+
+    // Positions the parser on the value found at `path` below the object it is on.
+    // On success `path.length` objects are left open, otherwise the object is consumed.
+    private static boolean seek(JsonParser parser, String[] path, int depth) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (!field.equals(path[depth])) {
+                parser.skipChildren();
+            } else if (depth == path.length - 1 || seek(parser, path, depth + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void closeObjects(JsonParser parser, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_OBJECT; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new IOException("Unexpected end of forecast input");
+                }
+                parser.skipChildren();
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import akka.javasdk.timer.TimerScheduler;
+import com.typesafe.config.Config;
+import io.example.application.ParticipantSlotsView.SlotRange;
+import io.example.application.ParticipantSlotsView.SlotRow;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Keeps the forecast and the conditions verdicts for upcoming slots warm. Every
+// run refreshes the full forecast and then evaluates each slot in the forecast
+// window that has a participant marked available. Reports go to the
+// ConditionsReportEntity of their slot, which the booking workflow on every node
+// reads, and to this node's ConditionsReportCache. A run holds no thread while
+// it waits: the refresh, the view query and the evaluations are composed, a
+// bounded number of slots at a time. Each run schedules the next as it starts.
+@Component(id = "forecast-prefetch")
+public class ForecastPrefetchAction extends TimedAction {
+
+    private static final String TIMER_NAME = "forecast-prefetch";
+    private static final Duration REFRESH_TIMEOUT = Duration.ofSeconds(60);
+    private static final Logger logger = LoggerFactory.getLogger(ForecastPrefetchAction.class);
+
+    private final ComponentClient componentClient;
+    private final GoogleWeatherService weatherService;
+    private final FlightConditionsEvaluator evaluator;
+    private final ConditionsReportCache reportCache;
+    private final Duration interval;
+    private final int parallelism;
+
+    public ForecastPrefetchAction(
+            ComponentClient componentClient,
+            GoogleWeatherService weatherService,
+            FlightConditionsEvaluator evaluator,
+            ConditionsReportCache reportCache,
+            Config config) {
+        this.componentClient = componentClient;
+        this.weatherService = weatherService;
+        this.evaluator = evaluator;
+        this.reportCache = reportCache;
+        this.interval = config.getDuration("flight-conditions.prefetch.interval");
+        this.parallelism = config.getInt("flight-conditions.prefetch.parallelism");
+    }
+
+    public Effect refresh() {
+        // Scheduled first, so a run that fails or overruns doesn't end the chain
+        schedule(timers(), componentClient, interval);
+
+        // The refresh may be shared with other callers, so the timeout goes on a copy
+        CompletionStage<Done> run = weatherService.refreshForecastAsync()
+                .toCompletableFuture()
+                .copy()
+                .orTimeout(REFRESH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .thenCompose(hours -> availableSlots().thenCompose(slotIds -> precompute(slotIds)
+                        .thenApply(precomputed -> {
+                            logger.info("Refreshed {} forecast hours and precomputed {} of {} available slots",
+                                    hours, precomputed, slotIds.size());
+                            return Done.done();
+                        })))
+                .exceptionally(error -> {
+                    logger.warn("Forecast prefetch failed, next attempt in {}", interval, error);
+                    return Done.done();
+                });
+        return effects().asyncDone(run);
+    }
+
+    private CompletionStage<Set<String>> availableSlots() {
+        LocalDateTime now = LocalDateTime.now();
+        SlotRange window = new SlotRange(
+                FlightConditionsEvaluator.slotId(now), FlightConditionsEvaluator.slotId(now.plusDays(10)));
+        return componentClient.forView()
+                .method(ParticipantSlotsView::getAvailableSlotsBetween)
+                .invokeAsync(window)
+                .thenApply(slots -> slots.slots().stream()
+                        .map(SlotRow::slotId)
+                        .collect(Collectors.toCollection(TreeSet::new)));
+    }
+
+    // Completes with the number of slots a report was stored for. A slot that
+    // fails is left for the next run and doesn't fail the others.
+    private CompletionStage<Integer> precompute(Set<String> slotIds) {
+        AsyncLimiter limiter = new AsyncLimiter(parallelism);
+        AtomicInteger precomputed = new AtomicInteger();
+        List<CompletableFuture<Done>> slots = slotIds.stream()
+                .map(slotId -> limiter.submit(() -> precompute(slotId, precomputed)).toCompletableFuture())
+                .toList();
+        return CompletableFuture.allOf(slots.toArray(CompletableFuture[]::new))
+                .thenApply(nothing -> precomputed.get());
+    }
+
+    private CompletionStage<Done> precompute(String slotId, AtomicInteger precomputed) {
+        return evaluator.evaluateAsync(slotId)
+                .thenCompose(report -> {
+                    if (report.isEmpty()) {
+                        return CompletableFuture.completedFuture(Done.done());
+                    }
+                    reportCache.put(slotId, report.get());
+                    return componentClient.forKeyValueEntity(slotId)
+                            .method(ConditionsReportEntity::put)
+                            .invokeAsync(report.get())
+                            .thenApply(done -> {
+                                precomputed.incrementAndGet();
+                                return done;
+                            });
+                })
+                .exceptionally(error -> {
+                    logger.debug("Could not precompute the report for slot {}", slotId, error);
+                    return Done.done();
+                });
+    }
+
+    // Replaces any pending run, so there is only ever one prefetch chain
+    public static void schedule(TimerScheduler timers, ComponentClient componentClient, Duration delay) {
+        timers.createSingleTimer(
+                TIMER_NAME,
+                delay,
+                componentClient.forTimedAction().method(ForecastPrefetchAction::refresh).deferred());
+    }
+}
@@ -1,137 +1,452 @@
 package io.example.application;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class GoogleWeatherService {
 
+    public static final String DEFAULT_BASE_URL = "https://weather.googleapis.com";
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleWeatherService.class);
+
+    private static final double LATITUDE = 51.7509;
+    private static final double LONGITUDE = 0.3398;
+    private static final int FORECAST_HOURS = 240;
+
+    // The upstream forecast is refreshed hourly, so there is no point in asking
+    // for the full 240 hours more often than this for the same location
+    private static final Duration FORECAST_TTL = Duration.ofMinutes(30);
+
+    private static final int MAX_IN_FLIGHT_REQUESTS = 4;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration PAGE_TIMEOUT = Duration.ofSeconds(5);
+    // Upper bound for all pages of one forecast, retries included
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(200);
+
+    private static final Metrics.Histogram PAGE_SECONDS = Metrics.histogram(
+            "weather_page_seconds",
+            "Time to fetch and parse one forecast page, per attempt",
+            Metrics.LATENCY_BUCKETS);
+    private static final Metrics.Histogram PAGE_BYTES = Metrics.histogram(
+            "weather_page_bytes",
+            "Size of forecast page response bodies",
+            Metrics.SIZE_BUCKETS);
+    private static final Metrics.Counter PAGE_RETRIES = Metrics.counter(
+            "weather_page_retries_total",
+            "Forecast page requests sent again after a retryable failure");
+    private static final Metrics.Counter CACHED_LOOKUPS = lookups("cached");
+    private static final Metrics.Counter FETCHED_LOOKUPS = lookups("fetched");
+
     private final HttpClient client;
+    private final Clock clock;
+    private final String baseUrl;
+    private final String apiKey;
+    private final AsyncLimiter requestLimiter = new AsyncLimiter(MAX_IN_FLIGHT_REQUESTS);
+    // Response bodies are streamed on virtual threads so the HTTP client's own
+    // threads never block on a slow body
+    private final Executor bodyReader = Executors.newVirtualThreadPerTaskExecutor();
 
-    public GoogleWeatherService(HttpClient client) {
+    // One entry per location and hour bucket. The value is a future so that
+    // concurrent callers for the same key share a single in-flight fetch.
+    private final Map<ForecastKey, CompletableFuture<HourlyForecast>> forecasts = new ConcurrentHashMap<>();
+    // Most recent successful fetch per location, used to work out which hours changed
+    private final Map<Location, HourlyForecast> latestForecasts = new ConcurrentHashMap<>();
+    private final List<Consumer<Set<Integer>>> forecastChangeListeners = new CopyOnWriteArrayList<>();
+
+    // baseUrl is scheme, host and optional port of the Weather API, so a local
+    // stand-in can take the place of weather.googleapis.com
+    public GoogleWeatherService(HttpClient client, Clock clock, String baseUrl, String apiKey) {
         this.client = client;
+        this.clock = clock;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.apiKey = apiKey;
+    }
+
+    public GoogleWeatherService(HttpClient client, Clock clock) {
+        this(client, clock, DEFAULT_BASE_URL, System.getenv("GOOGLE_API_KEY"));
+    }
+
+    public GoogleWeatherService(HttpClient client) {
+        this(client, Clock.systemDefaultZone());
+    }
+
+    public GoogleWeatherService(String baseUrl, String apiKey) {
+        this(HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build(), Clock.systemDefaultZone(),
+                baseUrl, apiKey);
     }
 
     public GoogleWeatherService() {
-        this(HttpClient.newHttpClient());
+        this(HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build());
     }
 
+    // Blocking convenience over getWeatherForecastAsync
     public String getWeatherForecast(LocalDateTime dateTime) {
-        if (dateTime.isBefore(LocalDateTime.now())) {
-            return "Requested date/time is in the past. Historical weather data is not available.";
+        return getWeatherForecastAsync(dateTime).toCompletableFuture().join();
+    }
+
+    // Completes with a one line summary of the forecast for the hour, or with a
+    // description of why there is none. It never completes exceptionally.
+    public CompletionStage<String> getWeatherForecastAsync(LocalDateTime dateTime) {
+        return lookupForecastHourAsync(dateTime).thenApply(lookup -> switch (lookup) {
+            case ForecastLookup.Found found -> found.hour().summary();
+            case ForecastLookup.InPast inPast ->
+                "Requested date/time is in the past. Historical weather data is not available.";
+            case ForecastLookup.BeyondForecastWindow beyond ->
+                "Requested date/time is too far in the future. Only a 10-day forecast is available.";
+            case ForecastLookup.Unavailable unavailable -> unavailable.reason();
+        });
+    }
+
+    // Structured counterpart of getWeatherForecastAsync for callers that judge the
+    // forecast themselves. It never completes exceptionally.
+    public CompletionStage<ForecastLookup> lookupForecastHourAsync(LocalDateTime dateTime) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (dateTime.isBefore(now)) {
+            return CompletableFuture.completedFuture(new ForecastLookup.InPast());
         }
-        if (dateTime.isAfter(LocalDateTime.now().plusDays(9))) {
-            return "Requested date/time is too far in the future. Only a 10-day forecast is available.";
+        if (dateTime.isAfter(now.plusDays(9))) {
+            return CompletableFuture.completedFuture(new ForecastLookup.BeyondForecastWindow());
         }
 
-        String apiKey = System.getenv("GOOGLE_API_KEY");
-        double lat = 51.7509;
-        double lon = 0.3398;
-        int hours = 240;
+        return forecastFor(LATITUDE, LONGITUDE)
+                .<ForecastLookup>thenApply(forecast -> {
+                    ForecastHour hour = forecast.hours().get(ForecastHoursParser.hourKey(dateTime));
+                    if (hour == null) {
+                        return new ForecastLookup.Unavailable(
+                                "Date " + dateTime + " is outside the available forecast window.");
+                    }
+                    return new ForecastLookup.Found(hour);
+                })
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    if (cause instanceof ForecastUnavailableException) {
+                        return new ForecastLookup.Unavailable(cause.getMessage());
+                    }
+                    logger.warn("Weather forecast lookup for {} failed", dateTime, cause);
+                    return new ForecastLookup.Unavailable("Error: Failed to fetch weather");
+                });
+    }
 
-        ObjectMapper mapper = new ObjectMapper();
-        List<JsonNode> allForecasts = new ArrayList<>();
-        String pageToken = null;
+    // Fetches the full forecast again even if the cached copy is still fresh. The
+    // cached copy keeps serving lookups until the new one replaces it, so background
+    // refreshes never make the booking path wait. Completes with the number of hours.
+    public CompletionStage<Integer> refreshForecastAsync() {
+        Location location = new Location(LATITUDE, LONGITUDE);
+        return fetchForecast(location).thenApply(forecast -> {
+            ForecastKey key = new ForecastKey(location, forecast.fetchedAt().truncatedTo(ChronoUnit.HOURS));
+            forecasts.put(key, CompletableFuture.completedFuture(forecast));
+            forecasts.keySet().removeIf(k -> k.hourBucket().isBefore(key.hourBucket()));
+            return forecast.hours().size();
+        });
+    }
+
+    // Returns the cached forecast for the location, fetching it if the cached copy
+    // is missing, belongs to an older hour bucket or has outlived its TTL.
+    private CompletableFuture<HourlyForecast> forecastFor(double lat, double lon) {
+        Instant now = clock.instant();
+        ForecastKey key = new ForecastKey(new Location(lat, lon), now.truncatedTo(ChronoUnit.HOURS));
+
+        CompletableFuture<HourlyForecast> fresh = new CompletableFuture<>();
+        CompletableFuture<HourlyForecast> entry = forecasts.compute(key,
+                (k, current) -> current == null || isExpired(current, now) ? fresh : current);
 
-        try {
-            do {
-                String url = String.format(Locale.US,
-                        "https://weather.googleapis.com/v1/forecast/hours:lookup?key=%s&location.latitude=%f&location.longitude=%f&hours=%d",
-                        apiKey, lat, lon, hours);
-                if (pageToken != null) {
-                    url += "&pageToken=" + pageToken;
+        if (entry != fresh) {
+            CACHED_LOOKUPS.increment();
+        } else {
+            FETCHED_LOOKUPS.increment();
+            forecasts.keySet().removeIf(k -> k.hourBucket().isBefore(key.hourBucket()));
+            fetchForecast(key.location()).whenComplete((forecast, error) -> {
+                if (error != null) {
+                    // Don't cache failures, the next caller gets to retry
+                    forecasts.remove(key, fresh);
+                    fresh.completeExceptionally(error);
+                } else {
+                    fresh.complete(forecast);
                 }
+            });
+        }
+        return entry;
+    }
+
+    private CompletableFuture<HourlyForecast> fetchForecast(Location location) {
+        return fetchPages(location.latitude(), location.longitude(), null, HashMap.newHashMap(FORECAST_HOURS))
+                .orTimeout(FETCH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(hours -> {
+                    HourlyForecast forecast = new HourlyForecast(clock.instant(), hours);
+                    HourlyForecast previous = latestForecasts.put(location, forecast);
+                    // Listeners run before anyone sees the new forecast, so whatever
+                    // they drop can only be rebuilt from the new data
+                    notifyChangedHours(previous, forecast);
+                    return forecast;
+                });
+    }
+
+    // Registers a listener that is handed the packed hour keys (see ForecastHour)
+    // whose forecast differs from the previous fetch for the same location
+    public void onForecastChange(Consumer<Set<Integer>> listener) {
+        forecastChangeListeners.add(listener);
+    }
+
+    private void notifyChangedHours(HourlyForecast previous, HourlyForecast current) {
+        if (forecastChangeListeners.isEmpty()) {
+            return;
+        }
+        Set<Integer> changed = new HashSet<>();
+        for (Map.Entry<Integer, ForecastHour> hour : current.hours().entrySet()) {
+            if (previous == null || !hour.getValue().equals(previous.hours().get(hour.getKey()))) {
+                changed.add(hour.getKey());
+            }
+        }
+        if (previous != null) {
+            for (Integer hourKey : previous.hours().keySet()) {
+                if (!current.hours().containsKey(hourKey)) {
+                    changed.add(hourKey);
+                }
+            }
+        }
+        if (!changed.isEmpty()) {
+            forecastChangeListeners.forEach(listener -> listener.accept(changed));
+        }
+    }
+
+    private boolean isExpired(CompletableFuture<HourlyForecast> entry, Instant now) {
+        if (!entry.isDone()) {
+            return false;
+        }
+        if (entry.isCompletedExceptionally()) {
+            return true;
+        }
+        return entry.join().fetchedAt().plus(FORECAST_TTL).isBefore(now);
+    }
 
-                HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-                String responseBody = response.body();
+    // Fetches the page for `pageToken` and then each following page in turn,
+    // indexing every hour by its packed local start hour
+    private CompletableFuture<Map<Integer, ForecastHour>> fetchPages(
+            double lat, double lon, String pageToken, Map<Integer, ForecastHour> hours) {
+        String url = String.format(Locale.US,
+                "%s/v1/forecast/hours:lookup?key=%s&location.latitude=%f&location.longitude=%f&hours=%d",
+                baseUrl, apiKey, lat, lon, FORECAST_HOURS);
+        if (pageToken != null) {
+            url += "&pageToken=" + pageToken;
+        }
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).timeout(PAGE_TIMEOUT).GET().build();
+
+        return fetchPage(request, 1).thenCompose(page -> {
+            for (ForecastHour hour : page.hours()) {
+                if (hour.hourKey() >= 0) {
+                    hours.put(hour.hourKey(), hour);
+                }
+            }
+            if (page.nextPageToken() == null) {
+                return CompletableFuture.completedFuture(hours);
+            }
+            return fetchPages(lat, lon, page.nextPageToken(), hours);
+        });
+    }
 
-                if (response.statusCode() == 200) {
-                    if (responseBody == null || responseBody.trim().isEmpty()) {
-                        return "Error: API returned 200 OK but with an empty response body.";
+    // Sends one page request through the limiter, retrying timeouts, I/O errors,
+    // 429s and 5xx responses with exponential backoff
+    private CompletableFuture<ForecastHoursParser.Page> fetchPage(HttpRequest request, int attempt) {
+        return requestLimiter
+                .submit(() -> {
+                    long started = System.nanoTime();
+                    return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                            .thenApplyAsync(this::readPage, bodyReader)
+                            .whenComplete((page, error) -> PAGE_SECONDS.observeNanos(System.nanoTime() - started));
+                })
+                .toCompletableFuture()
+                .handle((page, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(page);
                     }
-                    JsonNode root = mapper.readTree(responseBody);
-                    JsonNode hourlyForecasts = root.path("forecastHours");
-                    if (hourlyForecasts.isArray()) {
-                        for (JsonNode forecast : hourlyForecasts) {
-                            allForecasts.add(forecast);
-                        }
+                    Throwable cause = unwrap(error);
+                    if (!(cause instanceof ForecastUnavailableException)) {
+                        // No response at all; readPage counts the ones that came back
+                        pageRequests("error").increment();
                     }
-
-                    JsonNode tokenNode = root.path("nextPageToken");
-                    if (tokenNode.isMissingNode() || tokenNode.isNull() || tokenNode.asText().isEmpty()) {
-                        pageToken = null;
-                    } else {
-                        pageToken = tokenNode.asText();
+                    if (attempt >= MAX_ATTEMPTS || !isRetryable(cause)) {
+                        return CompletableFuture.<ForecastHoursParser.Page>failedFuture(cause);
                     }
-                } else {
-                    return "Error: API returned status " + response.statusCode() + " Body: " + responseBody;
-                }
-            } while (pageToken != null);
+                    PAGE_RETRIES.increment();
+                    long backoff = INITIAL_BACKOFF.toMillis() << (attempt - 1);
+                    long jitter = ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                    Executor delayed = CompletableFuture.delayedExecutor(backoff + jitter, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(() -> request, delayed)
+                            .thenCompose(r -> fetchPage(r, attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private ForecastHoursParser.Page readPage(HttpResponse<InputStream> response) {
+        pageRequests(Integer.toString(response.statusCode())).increment();
+        try (CountingInputStream body = new CountingInputStream(response.body())) {
+            if (response.statusCode() != 200) {
+                String message = "Error: API returned status " + response.statusCode()
+                        + " Body: " + new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                boolean retryable = response.statusCode() == 429 || response.statusCode() >= 500;
+                throw retryable ? new RetryableForecastException(message) : new ForecastUnavailableException(message);
+            }
+            ForecastHoursParser.Page page = ForecastHoursParser.readPage(body, ForecastHoursParser.READ_ALL);
+            PAGE_BYTES.observe(body.count());
+            if (page == null) {
+                throw new ForecastUnavailableException(
+                        "Error: API returned 200 OK but with an empty response body.");
+            }
+            return page;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            // Combine all pages into a single JSON structure to pass to the find method
-            ObjectNode combinedRoot = mapper.createObjectNode();
-            ArrayNode combinedForecasts = mapper.createArrayNode();
-            combinedForecasts.addAll(allForecasts);
-            combinedRoot.set("forecastHours", combinedForecasts);
-            String combinedJson = mapper.writeValueAsString(combinedRoot);
+    private static Metrics.Counter pageRequests(String status) {
+        return Metrics.counter("weather_page_requests_total",
+                "Forecast page requests by response status, or error when none came back",
+                "status", status);
+    }
+
+    private static Metrics.Counter lookups(String result) {
+        return Metrics.counter("weather_forecast_lookups_total",
+                "Forecasts asked for, by whether the cached one served or it had to be fetched",
+                "result", result);
+    }
 
-            return findWeatherForDateTime(combinedJson, dateTime);
+    private static boolean isRetryable(Throwable error) {
+        return error instanceof RetryableForecastException
+                || error instanceof IOException
+                || error instanceof UncheckedIOException
+                || error instanceof TimeoutException;
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "Error: Failed to fetch weather";
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
         }
+        return error;
     }
 
-    private String findWeatherForDateTime(String jsonResponse, LocalDateTime target) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(jsonResponse);
-            JsonNode hourlyForecasts = root.path("forecastHours");
+    // The subset of an hourly forecast entry used to judge flight conditions.
+    // `hourKey` is the local start hour packed as yyyyMMddHH.
+    public record ForecastHour(
+            int hourKey,
+            String condition,
+            double temperature,
+            int rainChance,
+            int thunderstormChance,
+            double windSpeed) {
+
+        public String summary() {
+            return condition +
+                    ", Temp: " + Math.round(temperature) + "°C" +
+                    ", Rain: " + rainChance + "%" +
+                    ", Thunder: " + thunderstormChance + "%" +
+                    ", Wind: " + Math.round(windSpeed) + " km/h";
+        }
+    }
 
-            for (JsonNode forecast : hourlyForecasts) {
-                String dateTimeStr = forecast.path("interval").path("startTime").asText();
-                ZonedDateTime forecastDateTime = ZonedDateTime.parse(dateTimeStr, DateTimeFormatter.ISO_ZONED_DATE_TIME);
+    public sealed interface ForecastLookup {
+        record Found(ForecastHour hour) implements ForecastLookup {
+        }
 
-                if (forecastDateTime.getYear() == target.getYear() &&
-                    forecastDateTime.getMonthValue() == target.getMonthValue() &&
-                    forecastDateTime.getDayOfMonth() == target.getDayOfMonth() &&
-                    forecastDateTime.getHour() == target.getHour()) {
-                    return getHourSummary(forecast);
-                }
+        record InPast() implements ForecastLookup {
+        }
+
+        // Later than the 10 days the upstream forecast covers
+        record BeyondForecastWindow() implements ForecastLookup {
+        }
+
+        // The hour should be covered but no forecast could be had for it
+        record Unavailable(String reason) implements ForecastLookup {
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
             }
-            return "Date " + target + " is outside the available forecast window.";
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "Failed to parse JSON: " + e.getMessage();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
         }
     }
 
-    private String getHourSummary(JsonNode hour) {
-        String condition = hour.path("weatherCondition").path("description").path("text").asText();
-        int temp = (int) Math.round(hour.path("temperature").path("degrees").asDouble());
-        int rainChance = hour.path("precipitation").path("probability").path("percent").asInt();
-        int thunderstormChance = hour.path("thunderstormProbability").asInt();
-        int windSpeed = (int) Math.round(hour.path("wind").path("speed").path("value").asDouble());
+    private record Location(double latitude, double longitude) {
+    }
 
+    private record ForecastKey(Location location, Instant hourBucket) {
+    }
 
-        return condition +
-                ", Temp: " + temp + "°C" +
-                ", Rain: " + rainChance + "%" +
-                ", Thunder: " + thunderstormChance + "%" +
-                ", Wind: " + windSpeed + " km/h";
+    private record HourlyForecast(Instant fetchedAt, Map<Integer, ForecastHour> hours) {
+    }
+
+    // Carries an error message meant to be handed back to the caller as-is
+    private static class ForecastUnavailableException extends RuntimeException {
+        ForecastUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    // An upstream failure that is worth another attempt. Once retries run out
+    // its message is handed back like any other unavailable forecast.
+    private static class RetryableForecastException extends ForecastUnavailableException {
+        RetryableForecastException(String message) {
+            super(message);
+        }
     }
-}
\ No newline at end of file
+}
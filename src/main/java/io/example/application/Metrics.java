@@ -0,0 +1,307 @@
+package io.example.application;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+// Process-wide registry of the service's own metrics. Components look their
+// metrics up by name (and optional label pairs) wherever they need them, since
+// entities can't be handed shared objects. Names and units follow Prometheus
+// conventions: durations in seconds, sizes in bytes, counters end in _total,
+// and prometheusText renders them all in the Prometheus text format.
+//
+// The registry only holds what this node counted, so every sample carries a
+// node label and each node has to be scraped directly rather than through the
+// service's load-balanced address.
+public final class Metrics {
+
+    public static final double[] LATENCY_BUCKETS =
+            {0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    public static final double[] SIZE_BUCKETS =
+            {256, 1024, 4096, 16384, 65536, 262144, 1048576, 4194304};
+    public static final double[] COUNT_BUCKETS =
+            {1, 10, 50, 100, 250, 500, 1000, 5000, 10000, 50000};
+
+    private static final ConcurrentMap<String, Metric> REGISTRY = new ConcurrentHashMap<>();
+    private static final String NODE = nodeName();
+
+    private Metrics() {
+    }
+
+    // Labels are given as name/value pairs
+    public static Counter counter(String name, String help, String... labels) {
+        return register(new Counter(name, help, labels(labels)), Counter.class);
+    }
+
+    // A counter whose count is kept elsewhere, such as a cache's own statistics.
+    // Like gauges, it is sampled when read and registering it again replaces its source.
+    public static Counter counter(String name, String help, LongSupplier value, String... labels) {
+        Counter counter = new Counter(name, help, labels(labels), value);
+        REGISTRY.put(counter.key(), counter);
+        return counter;
+    }
+
+    public static Histogram histogram(String name, String help, double[] buckets, String... labels) {
+        return register(new Histogram(name, help, labels(labels), buckets), Histogram.class);
+    }
+
+    // Gauges are sampled when read; registering the same gauge again replaces its source
+    public static Gauge gauge(String name, String help, DoubleSupplier value, String... labels) {
+        Gauge gauge = new Gauge(name, help, labels(labels), value);
+        REGISTRY.put(gauge.key(), gauge);
+        return gauge;
+    }
+
+    public static List<Metric> all() {
+        List<Metric> metrics = new ArrayList<>(REGISTRY.values());
+        metrics.sort((a, b) -> a.key().compareTo(b.key()));
+        return metrics;
+    }
+
+    // The name every sample from this node is labelled with: the pod or host name
+    public static String node() {
+        return NODE;
+    }
+
+    // Every metric in the Prometheus text exposition format (version 0.0.4)
+    public static String prometheusText() {
+        return prometheusText(NODE);
+    }
+
+    static String prometheusText(String node) {
+        List<Metric> metrics = all();
+        metrics.sort((a, b) -> a.name().equals(b.name()) ? a.key().compareTo(b.key()) : a.name().compareTo(b.name()));
+        StringBuilder text = new StringBuilder();
+        String previous = null;
+        for (Metric metric : metrics) {
+            if (!metric.name().equals(previous)) {
+                previous = metric.name();
+                text.append("# HELP ").append(metric.name()).append(' ').append(escapeHelp(metric.help())).append('\n');
+                text.append("# TYPE ").append(metric.name()).append(' ').append(type(metric)).append('\n');
+            }
+            switch (metric) {
+                case Counter counter -> sample(text, metric.name(), node, metric.labels(), null, counter.value());
+                case Gauge gauge -> sample(text, metric.name(), node, metric.labels(), null, gauge.value());
+                case Histogram histogram -> {
+                    Histogram.Snapshot snapshot = histogram.snapshot();
+                    for (int i = 0; i < snapshot.cumulativeCounts().length; i++) {
+                        String le = i < snapshot.bounds().length ? number(snapshot.bounds()[i]) : "+Inf";
+                        sample(text, metric.name() + "_bucket", node, metric.labels(), le,
+                                snapshot.cumulativeCounts()[i]);
+                    }
+                    sample(text, metric.name() + "_sum", node, metric.labels(), null, snapshot.sum());
+                    sample(text, metric.name() + "_count", node, metric.labels(), null, snapshot.count());
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    private static String type(Metric metric) {
+        return switch (metric) {
+            case Counter counter -> "counter";
+            case Gauge gauge -> "gauge";
+            case Histogram histogram -> "histogram";
+        };
+    }
+
+    private static void sample(
+            StringBuilder text, String name, String node, Map<String, String> labels, String le, double value) {
+        text.append(name).append("{node=\"").append(escapeLabel(node)).append('"');
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            text.append(',').append(label.getKey()).append("=\"").append(escapeLabel(label.getValue())).append('"');
+        }
+        if (le != null) {
+            text.append(",le=\"").append(le).append('"');
+        }
+        text.append("} ").append(number(value)).append('\n');
+    }
+
+    private static String number(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    // HOSTNAME is the pod name when deployed, and unique among the service's nodes
+    private static String nodeName() {
+        String hostname = System.getenv("HOSTNAME");
+        if (hostname != null && !hostname.isBlank()) {
+            return hostname;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    private static <M extends Metric> M register(M metric, Class<M> type) {
+        Metric registered = REGISTRY.putIfAbsent(metric.key(), metric);
+        if (registered == null) {
+            return metric;
+        }
+        if (!type.isInstance(registered)) {
+            throw new IllegalArgumentException(
+                    "metric " + metric.key() + " is already registered as a " + registered.getClass().getSimpleName());
+        }
+        return type.cast(registered);
+    }
+
+    private static Map<String, String> labels(String[] pairs) {
+        if (pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("labels must be name/value pairs");
+        }
+        if (pairs.length == 0) {
+            return Map.of();
+        }
+        Map<String, String> labels = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            labels.put(pairs[i], pairs[i + 1]);
+        }
+        return Collections.unmodifiableMap(labels);
+    }
+
+    public abstract static sealed class Metric permits Counter, Gauge, Histogram {
+        private final String name;
+        private final String help;
+        private final Map<String, String> labels;
+
+        private Metric(String name, String help, Map<String, String> labels) {
+            this.name = name;
+            this.help = help;
+            this.labels = labels;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String help() {
+            return help;
+        }
+
+        public Map<String, String> labels() {
+            return labels;
+        }
+
+        String key() {
+            return labels.isEmpty() ? name : name + labels;
+        }
+    }
+
+    public static final class Counter extends Metric {
+        private final LongAdder value = new LongAdder();
+        // Set for counters whose count is kept elsewhere
+        private final LongSupplier source;
+
+        private Counter(String name, String help, Map<String, String> labels) {
+            this(name, help, labels, null);
+        }
+
+        private Counter(String name, String help, Map<String, String> labels, LongSupplier source) {
+            super(name, help, labels);
+            this.source = source;
+        }
+
+        public void increment() {
+            add(1);
+        }
+
+        public void add(long amount) {
+            if (source != null) {
+                throw new IllegalStateException(key() + " is counted by its source");
+            }
+            value.add(amount);
+        }
+
+        public long value() {
+            return source == null ? value.sum() : source.getAsLong();
+        }
+    }
+
+    public static final class Gauge extends Metric {
+        private final DoubleSupplier value;
+
+        private Gauge(String name, String help, Map<String, String> labels, DoubleSupplier value) {
+            super(name, help, labels);
+            this.value = value;
+        }
+
+        public double value() {
+            return value.getAsDouble();
+        }
+    }
+
+    public static final class Histogram extends Metric {
+        private final double[] bounds;
+        // One more than bounds, the last one counting everything above the top bound
+        private final LongAdder[] buckets;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        private Histogram(String name, String help, Map<String, String> labels, double[] bounds) {
+            super(name, help, labels);
+            this.bounds = bounds.clone();
+            Arrays.sort(this.bounds);
+            this.buckets = new LongAdder[this.bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void observe(double value) {
+            int i = 0;
+            while (i < bounds.length && value > bounds[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            count.increment();
+            sum.add(value);
+        }
+
+        public void observeNanos(long nanos) {
+            observe(nanos / 1e9);
+        }
+
+        public Snapshot snapshot() {
+            long[] cumulative = new long[buckets.length];
+            long running = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                running += buckets[i].sum();
+                cumulative[i] = running;
+            }
+            return new Snapshot(bounds.clone(), cumulative, count.sum(), sum.sum());
+        }
+
+        // Bucket counts are cumulative, the last one being the +Inf bucket
+        public record Snapshot(double[] bounds, long[] cumulativeCounts, long count, double sum) {
+        }
+    }
+}
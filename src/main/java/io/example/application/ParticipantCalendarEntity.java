@@ -0,0 +1,107 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.TypeName;
+import akka.javasdk.eventsourcedentity.EventSourcedEntity;
+import io.example.application.ParticipantSlotEntity.Commands;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.ParticipantCalendar;
+import io.example.domain.ParticipantCalendar.CalendarSlot;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+// A participant's slot statuses for one month, keyed {participantId}-{YYYY-MM}.
+// It takes the same commands as ParticipantSlotEntity, which keeps one entity
+// (and journal) per slot and participant, but a participant has one of these
+// per month. It answers range queries itself, so reading a participant's slots
+// doesn't wait for a view to catch up. Kept by SlotToCalendarConsumer.
+//
+// A command that wouldn't change the slot, such as a redelivered one, persists
+// nothing.
+@Component(id = "participant-calendar")
+public class ParticipantCalendarEntity extends EventSourcedEntity<ParticipantCalendar, ParticipantCalendarEntity.Event> {
+
+    // Slot IDs that aren't times all share one calendar per participant
+    public static String calendarId(String participantId, String slotId) {
+        String month = FlightConditionsEvaluator.slotTime(slotId)
+                .map(YearMonth::from)
+                .map(YearMonth::toString)
+                .orElse("undated");
+        return participantId + "-" + month;
+    }
+
+    public static String calendarId(String participantId, LocalDateTime slotTime) {
+        return participantId + "-" + YearMonth.from(slotTime);
+    }
+
+    @Override
+    public ParticipantCalendar emptyState() {
+        return ParticipantCalendar.empty();
+    }
+
+    public Effect<Done> update(Commands command) {
+        Event event = switch (command) {
+            case Commands.MarkAvailable cmd ->
+                new Event.MarkedAvailable(cmd.slotId(), cmd.participantId(), cmd.participantType());
+            case Commands.UnmarkAvailable cmd ->
+                new Event.UnmarkedAvailable(cmd.slotId(), cmd.participantId(), cmd.participantType());
+            case Commands.Book cmd ->
+                new Event.Booked(cmd.slotId(), cmd.participantId(), cmd.participantType(), cmd.bookingId());
+            case Commands.Cancel cmd ->
+                new Event.Canceled(cmd.slotId(), cmd.participantId(), cmd.participantType(), cmd.bookingId());
+        };
+        if (apply(currentState(), event) == currentState()) {
+            return effects().reply(Done.done());
+        }
+        return effects()
+                .persist(event)
+                .thenReply(newState -> Done.done());
+    }
+
+    public ReadOnlyEffect<List<CalendarSlot>> getSlots(SlotQuery query) {
+        return effects().reply(currentState().between(query.fromSlotId(), query.toSlotId(), query.status()));
+    }
+
+    @Override
+    public ParticipantCalendar applyEvent(Event event) {
+        return apply(currentState(), event);
+    }
+
+    static ParticipantCalendar apply(ParticipantCalendar calendar, Event event) {
+        return switch (event) {
+            case Event.MarkedAvailable e -> calendar.markAvailable(e.slotId(), e.participantId(), e.participantType());
+            case Event.UnmarkedAvailable e ->
+                calendar.unmarkAvailable(e.slotId(), e.participantId(), e.participantType());
+            case Event.Booked e -> calendar.book(e.slotId(), e.participantId(), e.participantType(), e.bookingId());
+            case Event.Canceled e -> calendar.cancel(e.slotId(), e.participantId(), e.participantType(), e.bookingId());
+        };
+    }
+
+    // Inclusive range of slot IDs; a null status matches every slot
+    public record SlotQuery(String fromSlotId, String toSlotId, String status) {
+    }
+
+    public sealed interface Event {
+        @TypeName("calendar-marked-available")
+        record MarkedAvailable(String slotId, String participantId, ParticipantType participantType)
+                implements Event {
+        }
+
+        @TypeName("calendar-unmarked-available")
+        record UnmarkedAvailable(String slotId, String participantId, ParticipantType participantType)
+                implements Event {
+        }
+
+        @TypeName("calendar-booked")
+        record Booked(String slotId, String participantId, ParticipantType participantType, String bookingId)
+                implements Event {
+        }
+
+        @TypeName("calendar-canceled")
+        record Canceled(String slotId, String participantId, ParticipantType participantType, String bookingId)
+                implements Event {
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import io.example.domain.DaySchedule;
+import java.time.LocalDate;
+
+// One participant's schedule for one day, keyed {participantId}-{date}, kept
+// from the booking slot events by SlotToScheduleConsumer. A day's calendar is
+// then a single read of a few bytes, instead of a view query or one booking
+// slot call per hour. Every change sets or clears one bit, so a redelivered
+// change is harmless.
+@Component(id = "participant-schedule")
+public class ParticipantScheduleEntity extends KeyValueEntity<DaySchedule> {
+
+    public static String scheduleId(String participantId, LocalDate date) {
+        return participantId + "-" + date;
+    }
+
+    @Override
+    public DaySchedule emptyState() {
+        return DaySchedule.empty();
+    }
+
+    public Effect<Done> update(Change change) {
+        DaySchedule schedule = currentState();
+        DaySchedule updated = switch (change.type()) {
+            case MARK_AVAILABLE -> schedule.markAvailable(change.hour());
+            case UNMARK_AVAILABLE -> schedule.unmarkAvailable(change.hour());
+            case BOOK -> schedule.book(change.hour());
+            case CANCEL -> schedule.cancel(change.hour());
+        };
+        if (updated.equals(schedule)) {
+            return effects().reply(Done.done());
+        }
+        return effects()
+                .updateState(updated)
+                .thenReply(Done.done());
+    }
+
+    public ReadOnlyEffect<DaySchedule> getSchedule() {
+        return effects().reply(currentState());
+    }
+
+    public enum ChangeType {
+        MARK_AVAILABLE,
+        UNMARK_AVAILABLE,
+        BOOK,
+        CANCEL
+    }
+
+    public record Change(ChangeType type, int hour) {
+    }
+}
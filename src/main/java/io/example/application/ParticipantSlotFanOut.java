@@ -0,0 +1,77 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.client.ComponentClient;
+import io.example.application.ParticipantSlotEntity.Commands;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+// Sends the participant slot commands derived from booking events without
+// blocking. Commands for different participant slots run concurrently, commands
+// for the same participant slot run in the order given, and every command goes
+// through one limiter shared by all consumer instances, so a booking burst
+// can't flood the participant slot entities.
+public class ParticipantSlotFanOut {
+
+    private final ComponentClient client;
+    private final AsyncLimiter limiter;
+
+    public ParticipantSlotFanOut(ComponentClient client, int maxInFlight) {
+        this.client = client;
+        this.limiter = new AsyncLimiter(maxInFlight);
+        Metrics.gauge("participant_slot_commands_in_flight",
+                "Participant slot commands sent by the booking slot consumer and not yet answered",
+                limiter::inFlight);
+        Metrics.gauge("participant_slot_commands_queued",
+                "Participant slot commands waiting for the in-flight limit",
+                limiter::queued);
+    }
+
+    // Completes once every command has been applied, or with the first failure
+    public CompletionStage<Done> send(List<Commands> commands) {
+        // The last command queued for each participant slot, for the next one to follow
+        Map<String, CompletionStage<Done>> tails = new LinkedHashMap<>();
+        for (Commands command : commands) {
+            String participantSlotId = participantSlotId(command);
+            CompletionStage<Done> previous = tails.get(participantSlotId);
+            tails.put(participantSlotId, previous == null
+                    ? submit(participantSlotId, command)
+                    : previous.thenCompose(done -> submit(participantSlotId, command)));
+        }
+        CompletableFuture<?>[] all = tails.values().stream()
+                .map(CompletionStage::toCompletableFuture)
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(all).thenApply(nothing -> Done.done());
+    }
+
+    private CompletionStage<Done> submit(String participantSlotId, Commands command) {
+        return limiter.submit(() -> {
+            var participantSlot = client.forEventSourcedEntity(participantSlotId);
+            return switch (command) {
+                case Commands.MarkAvailable cmd ->
+                    participantSlot.method(ParticipantSlotEntity::markAvailable).invokeAsync(cmd);
+                case Commands.UnmarkAvailable cmd ->
+                    participantSlot.method(ParticipantSlotEntity::unmarkAvailable).invokeAsync(cmd);
+                case Commands.Book cmd -> participantSlot.method(ParticipantSlotEntity::book).invokeAsync(cmd);
+                case Commands.Cancel cmd -> participantSlot.method(ParticipantSlotEntity::cancel).invokeAsync(cmd);
+            };
+        });
+    }
+
+    // Participant slots are keyed by a derived key made up of
+    // {slotId}-{participantId}
+    // We don't need the participant type here because the participant IDs
+    // should always be unique/UUIDs
+    static String participantSlotId(Commands command) {
+        return switch (command) {
+            case Commands.MarkAvailable cmd -> cmd.slotId() + "-" + cmd.participantId();
+            case Commands.UnmarkAvailable cmd -> cmd.slotId() + "-" + cmd.participantId();
+            case Commands.Book cmd -> cmd.slotId() + "-" + cmd.participantId();
+            case Commands.Cancel cmd -> cmd.slotId() + "-" + cmd.participantId();
+        };
+    }
+}
@@ -3,6 +3,7 @@ package io.example.application;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.annotations.Consume;
 import akka.javasdk.annotations.Query;
+import akka.javasdk.annotations.Table;
 import akka.javasdk.view.TableUpdater;
 import akka.javasdk.view.View;
 import io.example.application.ParticipantSlotEntity.Event.Booked;
@@ -18,12 +19,22 @@ public class ParticipantSlotsView extends View {
 
     private static Logger logger = LoggerFactory.getLogger(ParticipantSlotsView.class);
 
+    @Table("participant_slots")
     @Consume.FromEventSourcedEntity(ParticipantSlotEntity.class)
     public static class ParticipantSlotsViewUpdater extends TableUpdater<SlotRow> {
 
         public Effect<SlotRow> onEvent(ParticipantSlotEntity.Event event) {
-            // Supply your own implementation
-            return effects().ignore();
+            return switch (event) {
+                case MarkedAvailable e -> effects().updateRow(new SlotRow(
+                        e.slotId(), e.participantId(), e.participantType().name(), "", "available"));
+                // Kept as a row, like the participant slot's own state, so change feeds see it
+                case UnmarkedAvailable e -> effects().updateRow(new SlotRow(
+                        e.slotId(), e.participantId(), e.participantType().name(), "", "unavailable"));
+                case Booked e -> effects().updateRow(new SlotRow(
+                        e.slotId(), e.participantId(), e.participantType().name(), e.bookingId(), "booked"));
+                case Canceled e -> effects().updateRow(new SlotRow(
+                        e.slotId(), e.participantId(), e.participantType().name(), e.bookingId(), "canceled"));
+            };
         }
     }
 
@@ -38,18 +49,79 @@ public class ParticipantSlotsView extends View {
     public record ParticipantStatusInput(String participantId, String status) {
     }
 
+    // Inclusive range of slot IDs. Slot IDs are YYYY-MM-DD-HH, so they sort by time.
+    public record SlotRange(String fromSlotId, String toSlotId) {
+    }
+
     public record SlotList(List<SlotRow> slots) {
     }
 
-    /*
-    // @Query("SELECT .... ")
+    // An empty pageToken asks for the first page
+    public record ParticipantStatusPageInput(String participantId, String status, String pageToken, int pageSize) {
+    }
+
+    public record SlotPage(List<SlotRow> slots, String nextPageToken, boolean hasMore) {
+    }
+
+    @Query("SELECT * AS slots FROM participant_slots WHERE participantId = :participantId")
     public QueryEffect<SlotList> getSlotsByParticipant(String participantId) {
         return queryResult();
     }
 
-    // @Query("SELECT ...")
+    @Query("""
+            SELECT * AS slots FROM participant_slots
+            WHERE participantId = :participantId AND status = :status
+            """)
     public QueryEffect<SlotList> getSlotsByParticipantAndStatus(ParticipantStatusInput input) {
         return queryResult();
     }
-    */
+
+    @Query("""
+            SELECT * AS slots, next_page_token() AS nextPageToken, has_more() AS hasMore
+            FROM participant_slots
+            WHERE participantId = :participantId AND status = :status
+            ORDER BY slotId
+            OFFSET page_token_offset(:pageToken)
+            LIMIT :pageSize
+            """)
+    public QueryEffect<SlotPage> getSlotPageByParticipantAndStatus(ParticipantStatusPageInput input) {
+        return queryResult();
+    }
+
+    // Emits rows as the view reads them, so callers never hold the full result
+    @Query("""
+            SELECT * FROM participant_slots
+            WHERE participantId = :participantId AND status = :status
+            ORDER BY slotId
+            """)
+    public QueryStreamEffect<SlotRow> streamSlotsByParticipantAndStatus(ParticipantStatusInput input) {
+        return queryStreamResult();
+    }
+
+    // Continuous queries: the current rows, then every row again as it changes.
+    // Deletions aren't streamed, which is why unmarked rows are kept.
+    @Query(value = """
+            SELECT * FROM participant_slots
+            WHERE participantId = :participantId
+            """, streamUpdates = true)
+    public QueryStreamEffect<SlotRow> streamSlotChangesByParticipant(String participantId) {
+        return queryStreamResult();
+    }
+
+    // Only rows changing into the status are streamed, not rows leaving it
+    @Query(value = """
+            SELECT * FROM participant_slots
+            WHERE status = :status
+            """, streamUpdates = true)
+    public QueryStreamEffect<SlotRow> streamSlotChangesByStatus(String status) {
+        return queryStreamResult();
+    }
+
+    @Query("""
+            SELECT * AS slots FROM participant_slots
+            WHERE status = 'available' AND slotId >= :fromSlotId AND slotId <= :toSlotId
+            """)
+    public QueryEffect<SlotList> getAvailableSlotsBetween(SlotRange range) {
+        return queryResult();
+    }
 }
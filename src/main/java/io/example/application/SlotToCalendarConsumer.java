@@ -0,0 +1,104 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.Metadata;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.application.ParticipantSlotEntity.Commands;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant.ParticipantType;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Keeps the participant calendars (ParticipantCalendarEntity) from the
+// booking slot events, with the same commands SlotToParticipantConsumer sends
+// to the participant slots. Being a consumer of its own, it starts from the
+// beginning of the booking slot journals, which is what backfills the
+// calendars when it is first deployed. The lag metric is the counterpart of
+// booking_slot_consumer_lag_seconds, for comparing the two layouts.
+@Component(id = "booking-slot-calendar-consumer")
+@Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+public class SlotToCalendarConsumer extends Consumer {
+
+    private static final Metrics.Histogram LAG_SECONDS = Metrics.histogram(
+            "booking_slot_calendar_consumer_lag_seconds",
+            "Time from a booking event being persisted to the calendar consumer picking it up",
+            Metrics.LATENCY_BUCKETS);
+    private static final Metrics.Histogram PROCESSING_SECONDS = Metrics.histogram(
+            "booking_slot_calendar_consumer_processing_seconds",
+            "Time to apply the participant calendar updates for one booking event",
+            Metrics.LATENCY_BUCKETS);
+
+    private final ComponentClient componentClient;
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    public SlotToCalendarConsumer(ComponentClient componentClient) {
+        this.componentClient = componentClient;
+    }
+
+    // The commands of one event go to different participants, so they don't
+    // need ordering among themselves
+    public Effect onEvent(BookingEvent event) {
+        recordLag(messageContext().metadata());
+        long started = System.nanoTime();
+        CompletableFuture<?>[] updates = commands(event).stream()
+                .map(command -> componentClient
+                        .forEventSourcedEntity(ParticipantCalendarEntity.calendarId(
+                                participantId(command), event.slotId()))
+                        .method(ParticipantCalendarEntity::update)
+                        .invokeAsync(command)
+                        .toCompletableFuture())
+                .toArray(CompletableFuture[]::new);
+        return effects().asyncDone(CompletableFuture.allOf(updates)
+                .whenComplete((nothing, error) -> {
+                    PROCESSING_SECONDS.observeNanos(System.nanoTime() - started);
+                    if (error != null) {
+                        logger.warn("Failed to update participant calendars for {}", event, error);
+                    }
+                })
+                .thenApply(nothing -> Done.done()));
+    }
+
+    static List<Commands> commands(BookingEvent event) {
+        return switch (event) {
+            case BookingEvent.ParticipantMarkedAvailable e ->
+                List.of(new Commands.MarkAvailable(e.slotId(), e.participantId(), e.participantType()));
+            case BookingEvent.ParticipantUnmarkedAvailable e ->
+                List.of(new Commands.UnmarkAvailable(e.slotId(), e.participantId(), e.participantType()));
+            case BookingEvent.ParticipantBooked e ->
+                List.of(new Commands.Book(e.slotId(), e.participantId(), e.participantType(), e.bookingId()));
+            case BookingEvent.ParticipantCanceled e ->
+                List.of(new Commands.Cancel(e.slotId(), e.participantId(), e.participantType(), e.bookingId()));
+            case BookingEvent.ReservationBooked e -> List.of(
+                    new Commands.Book(e.slotId(), e.studentId(), ParticipantType.STUDENT, e.bookingId()),
+                    new Commands.Book(e.slotId(), e.aircraftId(), ParticipantType.AIRCRAFT, e.bookingId()),
+                    new Commands.Book(e.slotId(), e.instructorId(), ParticipantType.INSTRUCTOR, e.bookingId()));
+            case BookingEvent.ReservationCanceled e -> List.of(
+                    new Commands.Cancel(e.slotId(), e.studentId(), ParticipantType.STUDENT, e.bookingId()),
+                    new Commands.Cancel(e.slotId(), e.aircraftId(), ParticipantType.AIRCRAFT, e.bookingId()),
+                    new Commands.Cancel(e.slotId(), e.instructorId(), ParticipantType.INSTRUCTOR, e.bookingId()));
+        };
+    }
+
+    static String participantId(Commands command) {
+        return switch (command) {
+            case Commands.MarkAvailable cmd -> cmd.participantId();
+            case Commands.UnmarkAvailable cmd -> cmd.participantId();
+            case Commands.Book cmd -> cmd.participantId();
+            case Commands.Cancel cmd -> cmd.participantId();
+        };
+    }
+
+    private static void recordLag(Metadata metadata) {
+        if (metadata.isCloudEvent()) {
+            metadata.asCloudEvent().time().ifPresent(persistedAt -> LAG_SECONDS.observeNanos(
+                    Math.max(0, Duration.between(persistedAt.toInstant(), Instant.now()).toNanos())));
+        }
+    }
+}
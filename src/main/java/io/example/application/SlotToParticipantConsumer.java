@@ -1,43 +1,120 @@
 package io.example.application;
 
+import akka.javasdk.Metadata;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.annotations.Consume;
-import akka.javasdk.client.ComponentClient;
 import akka.javasdk.consumer.Consumer;
 import io.example.domain.BookingEvent;
+import io.example.domain.Participant.ParticipantType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
 // This class is responsible for consuming events from the booking
 // slot entity and turning those into command calls on the
-// participant slot entity
+// participant slot entity.
+//
+// The commands are sent asynchronously through the shared
+// ParticipantSlotFanOut, and an event only counts as processed once its
+// commands have been applied. The runtime hands over events of one booking slot
+// in order and waits for each to be processed, which keeps every participant
+// slot's commands in order too.
 @Component(id = "booking-slot-consumer")
 @Consume.FromEventSourcedEntity(BookingSlotEntity.class)
 public class SlotToParticipantConsumer extends Consumer {
 
-    private final ComponentClient client;
+    private static final Metrics.Counter EVENTS = Metrics.counter(
+            "booking_slot_consumer_events_total",
+            "Booking events turned into participant slot updates");
+    private static final Metrics.Counter FAILURES = Metrics.counter(
+            "booking_slot_consumer_failures_total",
+            "Booking events whose participant slot updates failed and will be redelivered");
+    private static final Metrics.Histogram LAG_SECONDS = Metrics.histogram(
+            "booking_slot_consumer_lag_seconds",
+            "Time from a booking event being persisted to the consumer picking it up",
+            Metrics.LATENCY_BUCKETS);
+    private static final Metrics.Histogram PROCESSING_SECONDS = Metrics.histogram(
+            "booking_slot_consumer_processing_seconds",
+            "Time to apply the participant slot updates for one booking event",
+            Metrics.LATENCY_BUCKETS);
+
+    private final ParticipantSlotFanOut fanOut;
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    public SlotToParticipantConsumer(ComponentClient client) {
-        this.client = client;
+    public SlotToParticipantConsumer(ParticipantSlotFanOut fanOut) {
+        this.fanOut = fanOut;
     }
 
     public Effect onEvent(BookingEvent event) {
-        // Supply your own implementation
-        return effects().done();
+        recordLag(messageContext().metadata());
+        long started = System.nanoTime();
+        return effects().asyncDone(fanOut.send(commands(event))
+                .whenComplete((done, error) -> {
+                    PROCESSING_SECONDS.observeNanos(System.nanoTime() - started);
+                    if (error == null) {
+                        EVENTS.increment();
+                    } else {
+                        FAILURES.increment();
+                        logger.warn("Failed to update participant slots for {}", event, error);
+                    }
+                }));
     }
 
-    // Participant slots are keyed by a derived key made up of
-    // {slotId}-{participantId}
-    // We don't need the participant type here because the participant IDs
-    // should always be unique/UUIDs
-    private String participantSlotId(BookingEvent event) {
+    private List<ParticipantSlotEntity.Commands> commands(BookingEvent event) {
         return switch (event) {
-            case BookingEvent.ParticipantBooked evt -> evt.slotId() + "-" + evt.participantId();
-            case BookingEvent.ParticipantUnmarkedAvailable evt ->
-                evt.slotId() + "-" + evt.participantId();
-            case BookingEvent.ParticipantMarkedAvailable evt -> evt.slotId() + "-" + evt.participantId();
-            case BookingEvent.ParticipantCanceled evt -> evt.slotId() + "-" + evt.participantId();
+            case BookingEvent.ParticipantMarkedAvailable evt -> {
+                logger.debug("Marking slot {} available for participant {}", evt.slotId(), evt.participantId());
+                yield List.of(new ParticipantSlotEntity.Commands.MarkAvailable(
+                        evt.slotId(), evt.participantId(), evt.participantType()));
+            }
+            case BookingEvent.ParticipantUnmarkedAvailable evt -> {
+                logger.debug("Unmarking slot {} available for participant {}", evt.slotId(), evt.participantId());
+                yield List.of(new ParticipantSlotEntity.Commands.UnmarkAvailable(
+                        evt.slotId(), evt.participantId(), evt.participantType()));
+            }
+            case BookingEvent.ParticipantBooked evt -> {
+                logger.debug("Booking {} for participant {}", evt.bookingId(), evt.participantId());
+                yield List.of(new ParticipantSlotEntity.Commands.Book(
+                        evt.slotId(), evt.participantId(), evt.participantType(), evt.bookingId()));
+            }
+            case BookingEvent.ParticipantCanceled evt -> {
+                logger.debug("Canceling booking {} for participant {}", evt.bookingId(), evt.participantId());
+                yield List.of(new ParticipantSlotEntity.Commands.Cancel(
+                        evt.slotId(), evt.participantId(), evt.participantType(), evt.bookingId()));
+            }
+            // Composite events fan out to all three participant slots at once
+            case BookingEvent.ReservationBooked evt -> {
+                logger.debug("Booking {} for participants {}, {}, {}",
+                        evt.bookingId(), evt.studentId(), evt.aircraftId(), evt.instructorId());
+                yield List.of(
+                        new ParticipantSlotEntity.Commands.Book(
+                                evt.slotId(), evt.studentId(), ParticipantType.STUDENT, evt.bookingId()),
+                        new ParticipantSlotEntity.Commands.Book(
+                                evt.slotId(), evt.aircraftId(), ParticipantType.AIRCRAFT, evt.bookingId()),
+                        new ParticipantSlotEntity.Commands.Book(
+                                evt.slotId(), evt.instructorId(), ParticipantType.INSTRUCTOR, evt.bookingId()));
+            }
+            case BookingEvent.ReservationCanceled evt -> {
+                logger.debug("Canceling booking {} for participants {}, {}, {}",
+                        evt.bookingId(), evt.studentId(), evt.aircraftId(), evt.instructorId());
+                yield List.of(
+                        new ParticipantSlotEntity.Commands.Cancel(
+                                evt.slotId(), evt.studentId(), ParticipantType.STUDENT, evt.bookingId()),
+                        new ParticipantSlotEntity.Commands.Cancel(
+                                evt.slotId(), evt.aircraftId(), ParticipantType.AIRCRAFT, evt.bookingId()),
+                        new ParticipantSlotEntity.Commands.Cancel(
+                                evt.slotId(), evt.instructorId(), ParticipantType.INSTRUCTOR, evt.bookingId()));
+            }
         };
     }
+
+    private static void recordLag(Metadata metadata) {
+        if (metadata.isCloudEvent()) {
+            metadata.asCloudEvent().time().ifPresent(persistedAt -> LAG_SECONDS.observeNanos(
+                    Math.max(0, Duration.between(persistedAt.toInstant(), Instant.now()).toNanos())));
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package io.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.application.ParticipantScheduleEntity.Change;
+import io.example.application.ParticipantScheduleEntity.ChangeType;
+import io.example.domain.BookingEvent;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Keeps every participant's daily schedule (ParticipantScheduleEntity) in
+// step with the booking slot events. It runs alongside
+// SlotToParticipantConsumer, with its own progress through the events.
+@Component(id = "booking-slot-schedule-consumer")
+@Consume.FromEventSourcedEntity(BookingSlotEntity.class)
+public class SlotToScheduleConsumer extends Consumer {
+
+    private final ComponentClient componentClient;
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    public SlotToScheduleConsumer(ComponentClient componentClient) {
+        this.componentClient = componentClient;
+    }
+
+    public Effect onEvent(BookingEvent event) {
+        Optional<LocalDateTime> slotTime = FlightConditionsEvaluator.slotTime(event.slotId());
+        if (slotTime.isEmpty()) {
+            logger.warn("Not scheduling {}, its slot ID is not a time", event);
+            return effects().ignore();
+        }
+        var updates = changes(event, slotTime.get().getHour()).stream()
+                .map(update -> componentClient
+                        .forKeyValueEntity(ParticipantScheduleEntity.scheduleId(
+                                update.participantId(), slotTime.get().toLocalDate()))
+                        .method(ParticipantScheduleEntity::update)
+                        .invokeAsync(update.change())
+                        .toCompletableFuture())
+                .toArray(CompletableFuture[]::new);
+        return effects().asyncDone(CompletableFuture.allOf(updates).thenApply(nothing -> Done.done()));
+    }
+
+    private static List<ParticipantChange> changes(BookingEvent event, int hour) {
+        return switch (event) {
+            case BookingEvent.ParticipantMarkedAvailable e ->
+                List.of(new ParticipantChange(e.participantId(), new Change(ChangeType.MARK_AVAILABLE, hour)));
+            case BookingEvent.ParticipantUnmarkedAvailable e ->
+                List.of(new ParticipantChange(e.participantId(), new Change(ChangeType.UNMARK_AVAILABLE, hour)));
+            case BookingEvent.ParticipantBooked e ->
+                List.of(new ParticipantChange(e.participantId(), new Change(ChangeType.BOOK, hour)));
+            case BookingEvent.ParticipantCanceled e ->
+                List.of(new ParticipantChange(e.participantId(), new Change(ChangeType.CANCEL, hour)));
+            case BookingEvent.ReservationBooked e -> List.of(
+                    new ParticipantChange(e.studentId(), new Change(ChangeType.BOOK, hour)),
+                    new ParticipantChange(e.aircraftId(), new Change(ChangeType.BOOK, hour)),
+                    new ParticipantChange(e.instructorId(), new Change(ChangeType.BOOK, hour)));
+            case BookingEvent.ReservationCanceled e -> List.of(
+                    new ParticipantChange(e.studentId(), new Change(ChangeType.CANCEL, hour)),
+                    new ParticipantChange(e.aircraftId(), new Change(ChangeType.CANCEL, hour)),
+                    new ParticipantChange(e.instructorId(), new Change(ChangeType.CANCEL, hour)));
+        };
+    }
+
+    private record ParticipantChange(String participantId, Change change) {
+    }
+}
@@ -0,0 +1,124 @@
+package io.example.domain;
+
+import io.example.domain.Participant.ParticipantType;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// The participants available in a timeslot, indexed by participant type: one
+// HashTrieMap per type, keyed by participant ID. An availability check is a
+// single hash lookup on the ID and needs no Participant to probe with. It is
+// immutable: updates return a new set sharing structure with this one. It is
+// still a plain Set<Participant> to everyone else.
+final class AvailabilitySet extends AbstractSet<Participant> {
+
+  private static final ParticipantType[] TYPES = ParticipantType.values();
+
+  static final AvailabilitySet EMPTY = new AvailabilitySet(emptyIndex(), 0);
+
+  // Indexed by ParticipantType ordinal
+  private final HashTrieMap<String, Participant>[] byType;
+  private final int size;
+
+  private AvailabilitySet(HashTrieMap<String, Participant>[] byType, int size) {
+    this.byType = byType;
+    this.size = size;
+  }
+
+  static AvailabilitySet of(Collection<Participant> participants) {
+    if (participants instanceof AvailabilitySet set) {
+      return set;
+    }
+    if (participants.isEmpty()) {
+      return EMPTY;
+    }
+    @SuppressWarnings("unchecked")
+    HashTrieMap.Builder<String, Participant>[] builders = new HashTrieMap.Builder[TYPES.length];
+    for (Participant participant : participants) {
+      int type = participant.participantType().ordinal();
+      if (builders[type] == null) {
+        builders[type] = HashTrieMap.builder(participants.size());
+      }
+      builders[type].put(participant.id(), participant);
+    }
+    HashTrieMap<String, Participant>[] byType = emptyIndex();
+    int size = 0;
+    for (int type = 0; type < TYPES.length; type++) {
+      if (builders[type] != null) {
+        byType[type] = builders[type].build();
+        size += byType[type].size();
+      }
+    }
+    return new AvailabilitySet(byType, size);
+  }
+
+  boolean contains(String participantId, ParticipantType participantType) {
+    return byType[participantType.ordinal()].containsKey(participantId);
+  }
+
+  AvailabilitySet with(String participantId, ParticipantType participantType) {
+    HashTrieMap<String, Participant> ids = byType[participantType.ordinal()];
+    if (ids.containsKey(participantId)) {
+      return this;
+    }
+    return updated(participantType, ids.plus(participantId, new Participant(participantId, participantType)));
+  }
+
+  AvailabilitySet without(String participantId, ParticipantType participantType) {
+    HashTrieMap<String, Participant> ids = byType[participantType.ordinal()];
+    HashTrieMap<String, Participant> updated = ids.minus(participantId);
+    return updated == ids ? this : updated(participantType, updated);
+  }
+
+  private AvailabilitySet updated(ParticipantType participantType, HashTrieMap<String, Participant> ids) {
+    HashTrieMap<String, Participant>[] updated = byType.clone();
+    HashTrieMap<String, Participant> before = updated[participantType.ordinal()];
+    updated[participantType.ordinal()] = ids;
+    return new AvailabilitySet(updated, size - before.size() + ids.size());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static HashTrieMap<String, Participant>[] emptyIndex() {
+    HashTrieMap<String, Participant>[] byType = new HashTrieMap[TYPES.length];
+    for (int type = 0; type < TYPES.length; type++) {
+      byType[type] = HashTrieMap.empty();
+    }
+    return byType;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return o instanceof Participant participant
+        && contains(participant.id(), participant.participantType());
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<Participant> iterator() {
+    return new Iterator<>() {
+      private int type;
+      private Iterator<Participant> participants = byType[0].values();
+
+      @Override
+      public boolean hasNext() {
+        while (!participants.hasNext() && type < TYPES.length - 1) {
+          participants = byType[++type].values();
+        }
+        return participants.hasNext();
+      }
+
+      @Override
+      public Participant next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return participants.next();
+      }
+    };
+  }
+}
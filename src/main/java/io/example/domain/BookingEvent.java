@@ -6,6 +6,9 @@ import io.example.domain.Participant.ParticipantType;
 // The list of all events emitted by the BookingSlotEntity
 public sealed interface BookingEvent {
 
+  // Every event belongs to one slot, the ID of the entity that emitted it
+  String slotId();
+
   @TypeName("slot-reserved")
   record ParticipantMarkedAvailable(
       String slotId, String participantId, ParticipantType participantType)
@@ -25,4 +28,18 @@ public sealed interface BookingEvent {
   record ParticipantCanceled(
       String slotId, String participantId, ParticipantType participantType, String bookingId)
       implements BookingEvent {}
+
+  // A whole booking in one event: the student, aircraft and instructor booked
+  // together. Replaces three ParticipantBooked events, which older journals
+  // still contain.
+  @TypeName("booking-reserved")
+  record ReservationBooked(
+      String slotId, String bookingId, String studentId, String aircraftId, String instructorId)
+      implements BookingEvent {}
+
+  // Cancels a whole booking in one event, in place of three ParticipantCanceled
+  @TypeName("booking-canceled")
+  record ReservationCanceled(
+      String slotId, String bookingId, String studentId, String aircraftId, String instructorId)
+      implements BookingEvent {}
 }
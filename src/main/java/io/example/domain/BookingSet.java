@@ -0,0 +1,239 @@
+package io.example.domain;
+
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot.Booking;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// The bookings of a timeslot, indexed by booking ID so that the (usually three)
+// entries of a booking can be found or removed without scanning the whole slot,
+// and by participant type and ID so that whether a participant holds a booking
+// is a single hash lookup that needs no Participant to probe with. It is
+// immutable: updates return a new set sharing structure with this one. It is
+// still a plain Set<Booking> to everyone else, including Jackson.
+final class BookingSet extends AbstractSet<Booking> {
+
+  private static final ParticipantType[] TYPES = ParticipantType.values();
+
+  static final BookingSet EMPTY = new BookingSet(HashTrieMap.empty(), emptyIndex(), 0);
+
+  private final HashTrieMap<String, Entries> byBookingId;
+  // Indexed by ParticipantType ordinal: how many bookings each participant ID
+  // of that type holds in the slot
+  private final HashTrieMap<String, Integer>[] bookedByType;
+  private final int size;
+
+  private BookingSet(
+      HashTrieMap<String, Entries> byBookingId, HashTrieMap<String, Integer>[] bookedByType, int size) {
+    this.byBookingId = byBookingId;
+    this.bookedByType = bookedByType;
+    this.size = size;
+  }
+
+  // The participants booked under one booking ID
+  private record Entries(String bookingId, Participant[] participants) {
+    boolean contains(String participantId, ParticipantType participantType) {
+      for (Participant participant : participants) {
+        if (participant.participantType() == participantType && participant.id().equals(participantId)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    Entries plus(Participant participant) {
+      Participant[] grown = Arrays.copyOf(participants, participants.length + 1);
+      grown[participants.length] = participant;
+      return new Entries(bookingId, grown);
+    }
+
+    Booking booking(int i) {
+      return new Booking(participants[i], bookingId);
+    }
+  }
+
+  static BookingSet of(Collection<Booking> bookings) {
+    if (bookings instanceof BookingSet set) {
+      return set;
+    }
+    // Groups the bookings first, so the trie is built once rather than a
+    // path at a time
+    Map<String, Entries> grouped = new HashMap<>();
+    int size = 0;
+    for (Booking booking : bookings) {
+      Participant participant = booking.participant();
+      Entries entries = grouped.get(booking.bookingId());
+      if (entries == null) {
+        grouped.put(booking.bookingId(), new Entries(booking.bookingId(), new Participant[] {participant}));
+      } else if (!entries.contains(participant.id(), participant.participantType())) {
+        grouped.put(booking.bookingId(), entries.plus(participant));
+      } else {
+        continue;
+      }
+      size++;
+    }
+    if (size == 0) {
+      return EMPTY;
+    }
+    HashTrieMap.Builder<String, Entries> byBookingId = HashTrieMap.builder(grouped.size());
+    @SuppressWarnings("unchecked")
+    Map<String, Integer>[] counts = new Map[TYPES.length];
+    for (Entries entries : grouped.values()) {
+      byBookingId.put(entries.bookingId(), entries);
+      for (Participant participant : entries.participants()) {
+        int type = participant.participantType().ordinal();
+        if (counts[type] == null) {
+          counts[type] = new HashMap<>();
+        }
+        counts[type].merge(participant.id(), 1, Integer::sum);
+      }
+    }
+    HashTrieMap<String, Integer>[] bookedByType = emptyIndex();
+    for (int type = 0; type < TYPES.length; type++) {
+      if (counts[type] != null) {
+        HashTrieMap.Builder<String, Integer> booked = HashTrieMap.builder(counts[type].size());
+        counts[type].forEach(booked::put);
+        bookedByType[type] = booked.build();
+      }
+    }
+    return new BookingSet(byBookingId.build(), bookedByType, size);
+  }
+
+  List<Booking> find(String bookingId) {
+    Entries entries = byBookingId.get(bookingId);
+    if (entries == null) {
+      return List.of();
+    }
+    Booking[] found = new Booking[entries.participants().length];
+    for (int i = 0; i < found.length; i++) {
+      found[i] = entries.booking(i);
+    }
+    return List.of(found);
+  }
+
+  boolean containsParticipant(String participantId, ParticipantType participantType) {
+    return bookedByType[participantType.ordinal()].containsKey(participantId);
+  }
+
+  BookingSet with(String participantId, ParticipantType participantType, String bookingId) {
+    Entries entries = byBookingId.get(bookingId);
+    Participant participant = new Participant(participantId, participantType);
+    if (entries == null) {
+      Entries created = new Entries(bookingId, new Participant[] {participant});
+      return new BookingSet(
+          byBookingId.plus(bookingId, created), counted(bookedByType, participant, 1), size + 1);
+    }
+    if (entries.contains(participantId, participantType)) {
+      return this;
+    }
+    return new BookingSet(
+        byBookingId.plus(bookingId, entries.plus(participant)),
+        counted(bookedByType, participant, 1),
+        size + 1);
+  }
+
+  // Adds the three participants of a booking with a single update
+  BookingSet withReservation(String bookingId, String studentId, String aircraftId, String instructorId) {
+    if (byBookingId.containsKey(bookingId)) {
+      return with(studentId, ParticipantType.STUDENT, bookingId)
+          .with(aircraftId, ParticipantType.AIRCRAFT, bookingId)
+          .with(instructorId, ParticipantType.INSTRUCTOR, bookingId);
+    }
+    Participant[] participants = {
+      new Participant(studentId, ParticipantType.STUDENT),
+      new Participant(aircraftId, ParticipantType.AIRCRAFT),
+      new Participant(instructorId, ParticipantType.INSTRUCTOR)
+    };
+    HashTrieMap<String, Integer>[] booked = bookedByType;
+    for (Participant participant : participants) {
+      booked = counted(booked, participant, 1);
+    }
+    return new BookingSet(
+        byBookingId.plus(bookingId, new Entries(bookingId, participants)),
+        booked,
+        size + participants.length);
+  }
+
+  BookingSet withoutBooking(String bookingId) {
+    Entries entries = byBookingId.get(bookingId);
+    if (entries == null) {
+      return this;
+    }
+    HashTrieMap<String, Integer>[] booked = bookedByType;
+    for (Participant participant : entries.participants()) {
+      booked = counted(booked, participant, -1);
+    }
+    return new BookingSet(byBookingId.minus(bookingId), booked, size - entries.participants().length);
+  }
+
+  // A copy of the index with the participant's booking count moved by delta;
+  // a participant whose count reaches zero leaves the index
+  private static HashTrieMap<String, Integer>[] counted(
+      HashTrieMap<String, Integer>[] bookedByType, Participant participant, int delta) {
+    int type = participant.participantType().ordinal();
+    HashTrieMap<String, Integer> ids = bookedByType[type];
+    Integer count = ids.get(participant.id());
+    int updated = (count == null ? 0 : count) + delta;
+    HashTrieMap<String, Integer>[] copy = bookedByType.clone();
+    copy[type] = updated > 0 ? ids.plus(participant.id(), updated) : ids.minus(participant.id());
+    return copy;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static HashTrieMap<String, Integer>[] emptyIndex() {
+    HashTrieMap<String, Integer>[] bookedByType = new HashTrieMap[TYPES.length];
+    for (int type = 0; type < TYPES.length; type++) {
+      bookedByType[type] = HashTrieMap.empty();
+    }
+    return bookedByType;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof Booking booking)) {
+      return false;
+    }
+    Entries entries = byBookingId.get(booking.bookingId());
+    if (entries == null) {
+      return false;
+    }
+    return entries.contains(booking.participant().id(), booking.participant().participantType());
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<Booking> iterator() {
+    return new Iterator<>() {
+      private final Iterator<Entries> groups = byBookingId.values();
+      private Entries group;
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        while ((group == null || index >= group.participants().length) && groups.hasNext()) {
+          group = groups.next();
+          index = 0;
+        }
+        return group != null && index < group.participants().length;
+      }
+
+      @Override
+      public Booking next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return group.booking(index++);
+      }
+    };
+  }
+}
@@ -0,0 +1,123 @@
+package io.example.domain;
+
+import io.example.domain.ParticipantCalendar.CalendarSlot;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// The slots of a ParticipantCalendar as three parallel arrays sorted by slot
+// ID: the IDs, a status code per slot and the booking IDs. There are no
+// per-slot objects until a slot is read. It is immutable, and a plain
+// List<CalendarSlot> to everyone else, including Jackson.
+final class CalendarSlots extends AbstractList<CalendarSlot> {
+
+  static final byte AVAILABLE = 0;
+  static final byte UNAVAILABLE = 1;
+  static final byte BOOKED = 2;
+  static final byte CANCELED = 3;
+
+  private static final String[] STATUSES = {"available", "unavailable", "booked", "canceled"};
+
+  static final CalendarSlots EMPTY = new CalendarSlots(new String[0], new byte[0], new String[0]);
+
+  private final String[] slotIds;
+  private final byte[] statuses;
+  private final String[] bookingIds;
+
+  private CalendarSlots(String[] slotIds, byte[] statuses, String[] bookingIds) {
+    this.slotIds = slotIds;
+    this.statuses = statuses;
+    this.bookingIds = bookingIds;
+  }
+
+  static CalendarSlots of(Collection<CalendarSlot> slots) {
+    if (slots == null) {
+      return EMPTY;
+    }
+    if (slots instanceof CalendarSlots calendarSlots) {
+      return calendarSlots;
+    }
+    CalendarSlots calendarSlots = EMPTY;
+    for (CalendarSlot slot : slots) {
+      calendarSlots = calendarSlots.with(slot.slotId(), status(slot.status()), slot.bookingId());
+    }
+    return calendarSlots;
+  }
+
+  CalendarSlot find(String slotId) {
+    int index = Arrays.binarySearch(slotIds, slotId);
+    return index < 0 ? null : get(index);
+  }
+
+  List<CalendarSlot> between(String fromSlotId, String toSlotId, String status) {
+    int from = insertionPoint(fromSlotId);
+    int to = Arrays.binarySearch(slotIds, toSlotId);
+    to = to < 0 ? -to - 1 : to + 1;
+    return subList(from, Math.max(from, to)).stream()
+        .filter(slot -> status == null || status.equals(slot.status()))
+        .toList();
+  }
+
+  CalendarSlots with(String slotId, byte status, String bookingId) {
+    int index = Arrays.binarySearch(slotIds, slotId);
+    if (index >= 0) {
+      if (statuses[index] == status && equal(bookingIds[index], bookingId)) {
+        return this;
+      }
+      byte[] updatedStatuses = statuses.clone();
+      String[] updatedBookingIds = bookingIds.clone();
+      updatedStatuses[index] = status;
+      updatedBookingIds[index] = bookingId;
+      return new CalendarSlots(slotIds, updatedStatuses, updatedBookingIds);
+    }
+    int at = -index - 1;
+    return new CalendarSlots(
+        insert(slotIds, at, slotId, new String[slotIds.length + 1]),
+        insert(statuses, at, status),
+        insert(bookingIds, at, bookingId, new String[bookingIds.length + 1]));
+  }
+
+  @Override
+  public CalendarSlot get(int index) {
+    return new CalendarSlot(slotIds[index], STATUSES[statuses[index]], bookingIds[index]);
+  }
+
+  @Override
+  public int size() {
+    return slotIds.length;
+  }
+
+  private int insertionPoint(String slotId) {
+    int index = Arrays.binarySearch(slotIds, slotId);
+    return index < 0 ? -index - 1 : index;
+  }
+
+  private static byte status(String status) {
+    for (byte code = 0; code < STATUSES.length; code++) {
+      if (STATUSES[code].equals(status)) {
+        return code;
+      }
+    }
+    throw new IllegalArgumentException("unknown slot status: " + status);
+  }
+
+  private static boolean equal(String a, String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  private static String[] insert(String[] values, int at, String value, String[] into) {
+    System.arraycopy(values, 0, into, 0, at);
+    into[at] = value;
+    System.arraycopy(values, at, into, at + 1, values.length - at);
+    return into;
+  }
+
+  private static byte[] insert(byte[] values, int at, byte value) {
+    byte[] into = new byte[values.length + 1];
+    System.arraycopy(values, 0, into, 0, at);
+    into[at] = value;
+    System.arraycopy(values, at, into, at + 1, values.length - at);
+    return into;
+  }
+}
@@ -0,0 +1,64 @@
+package io.example.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One participant's day as two 24-bit bitmaps, bit N standing for the slot
+// starting at hour N: the hours the participant is available in and the hours
+// they are booked in. Changes follow Timeslot: booking an hour takes it out of
+// availability, and canceling doesn't put it back.
+public record DaySchedule(int available, int booked) {
+
+  public static final int HOURS = 24;
+
+  public static DaySchedule empty() {
+    return new DaySchedule(0, 0);
+  }
+
+  public DaySchedule markAvailable(int hour) {
+    return new DaySchedule(available | bit(hour), booked);
+  }
+
+  public DaySchedule unmarkAvailable(int hour) {
+    return new DaySchedule(available & ~bit(hour), booked);
+  }
+
+  public DaySchedule book(int hour) {
+    return new DaySchedule(available & ~bit(hour), booked | bit(hour));
+  }
+
+  public DaySchedule cancel(int hour) {
+    return new DaySchedule(available, booked & ~bit(hour));
+  }
+
+  public boolean isAvailable(int hour) {
+    return (available & bit(hour)) != 0;
+  }
+
+  public boolean isBooked(int hour) {
+    return (booked & bit(hour)) != 0;
+  }
+
+  public List<Integer> availableHours() {
+    return hours(available);
+  }
+
+  public List<Integer> bookedHours() {
+    return hours(booked);
+  }
+
+  private static List<Integer> hours(int bits) {
+    List<Integer> hours = new ArrayList<>(Integer.bitCount(bits));
+    for (int rest = bits; rest != 0; rest &= rest - 1) {
+      hours.add(Integer.numberOfTrailingZeros(rest));
+    }
+    return hours;
+  }
+
+  private static int bit(int hour) {
+    if (hour < 0 || hour >= HOURS) {
+      throw new IllegalArgumentException("hour must be between 0 and 23: " + hour);
+    }
+    return 1 << hour;
+  }
+}
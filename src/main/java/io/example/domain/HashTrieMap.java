@@ -0,0 +1,470 @@
+package io.example.domain;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+// A persistent hash array mapped trie. Every update returns a new map that
+// shares all untouched nodes with the old one, so an update copies at most one
+// small node per level (about log32 n of them) and older versions stay valid
+// without defensive copies. Keys and values must not be null.
+final class HashTrieMap<K, V> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  // 7 bitmap levels cover a 32-bit hash, plus one for a collision node
+  private static final int MAX_DEPTH = 8;
+  private static final Object NOT_FOUND = new Object();
+
+  private static final HashTrieMap<?, ?> EMPTY = new HashTrieMap<>(BitmapNode.EMPTY, 0);
+
+  private final Node root;
+  private final int size;
+
+  private HashTrieMap(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <K, V> HashTrieMap<K, V> empty() {
+    return (HashTrieMap<K, V>) EMPTY;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  V get(Object key) {
+    Object value = root.find(key.hashCode(), 0, key);
+    return value == NOT_FOUND ? null : (V) value;
+  }
+
+  boolean containsKey(Object key) {
+    return root.find(key.hashCode(), 0, key) != NOT_FOUND;
+  }
+
+  HashTrieMap<K, V> plus(K key, V value) {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(value, "value");
+    Change change = new Change();
+    Node updated = root.put(key.hashCode(), 0, key, value, change);
+    return updated == root ? this : new HashTrieMap<>(updated, size + change.sizeDelta);
+  }
+
+  HashTrieMap<K, V> minus(Object key) {
+    Change change = new Change();
+    Node updated = root.remove(key.hashCode(), 0, key, change);
+    if (updated == root) {
+      return this;
+    }
+    return updated == null ? empty() : new HashTrieMap<>(updated, size + change.sizeDelta);
+  }
+
+  Iterator<V> values() {
+    return new ValueIterator<>(root);
+  }
+
+  static <K, V> Builder<K, V> builder(int expectedSize) {
+    return new Builder<>(expectedSize);
+  }
+
+  // Collects entries and builds the trie in one pass, allocating each node
+  // once at its final size instead of copying the path to it on every plus.
+  // The result is the trie the same entries would get one plus at a time; a
+  // key put twice keeps its last value.
+  static final class Builder<K, V> {
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int count;
+
+    private Builder(int expectedSize) {
+      int capacity = Math.max(expectedSize, 4);
+      keys = new Object[capacity];
+      values = new Object[capacity];
+      hashes = new int[capacity];
+    }
+
+    Builder<K, V> put(K key, V value) {
+      Objects.requireNonNull(key, "key");
+      Objects.requireNonNull(value, "value");
+      if (count == keys.length) {
+        keys = Arrays.copyOf(keys, count * 2);
+        values = Arrays.copyOf(values, count * 2);
+        hashes = Arrays.copyOf(hashes, count * 2);
+      }
+      keys[count] = key;
+      values[count] = value;
+      hashes[count] = key.hashCode();
+      count++;
+      return this;
+    }
+
+    HashTrieMap<K, V> build() {
+      if (count == 0) {
+        return empty();
+      }
+      int[] order = new int[count];
+      for (int i = 0; i < count; i++) {
+        order[i] = i;
+      }
+      Change change = new Change();
+      Node root = node(order, new int[count], 0, count, 0, change);
+      return new HashTrieMap<>(root, change.sizeDelta);
+    }
+
+    // The bitmap node for order[from, to), which share the hash bits below
+    // shift. Sorts that range by the next five bits, stably so a later put of
+    // the same key still comes later.
+    private Node node(int[] order, int[] scratch, int from, int to, int shift, Change change) {
+      int[] starts = new int[(1 << BITS) + 1];
+      for (int i = from; i < to; i++) {
+        starts[((hashes[order[i]] >>> shift) & MASK) + 1]++;
+      }
+      int bitmap = 0;
+      for (int c = 0; c < 1 << BITS; c++) {
+        if (starts[c + 1] > 0) {
+          bitmap |= 1 << c;
+        }
+        starts[c + 1] += starts[c];
+      }
+      int[] next = starts.clone();
+      for (int i = from; i < to; i++) {
+        scratch[from + next[(hashes[order[i]] >>> shift) & MASK]++] = order[i];
+      }
+      System.arraycopy(scratch, from, order, from, to - from);
+
+      Object[] array = new Object[2 * Integer.bitCount(bitmap)];
+      int slot = 0;
+      for (int c = 0; c < 1 << BITS; c++) {
+        int first = from + starts[c];
+        int last = from + starts[c + 1];
+        if (first == last) {
+          continue;
+        }
+        if (last - first > 1 && !sameHash(order, first, last)) {
+          array[slot + 1] = node(order, scratch, first, last, shift + BITS, change);
+        } else {
+          Node collision = last - first > 1 ? collision(order, first, last, change) : null;
+          if (collision == null) {
+            array[slot] = keys[order[first]];
+            array[slot + 1] = values[order[last - 1]];
+            change.sizeDelta++;
+          } else {
+            array[slot + 1] = collision;
+          }
+        }
+        slot += 2;
+      }
+      return new BitmapNode(bitmap, array);
+    }
+
+    private boolean sameHash(int[] order, int from, int to) {
+      int hash = hashes[order[from]];
+      for (int i = from + 1; i < to; i++) {
+        if (hashes[order[i]] != hash) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // Keys in order[from, to) all have the same hash. Returns null when they
+    // are all equal, and the last value goes in the parent instead.
+    private Node collision(int[] order, int from, int to, Change change) {
+      Object[] pairs = new Object[2 * (to - from)];
+      int length = 0;
+      for (int i = from; i < to; i++) {
+        Object key = keys[order[i]];
+        int j = 0;
+        while (j < length && !key.equals(pairs[j])) {
+          j += 2;
+        }
+        if (j == length) {
+          pairs[j] = key;
+          length += 2;
+        }
+        pairs[j + 1] = values[order[i]];
+      }
+      if (length == 2) {
+        return null;
+      }
+      change.sizeDelta += length / 2;
+      return new CollisionNode(hashes[order[from]], Arrays.copyOf(pairs, length));
+    }
+  }
+
+  private static final class Change {
+    int sizeDelta;
+  }
+
+  private static int bit(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  // Both node kinds keep their entries as [key, value] pairs in one array. In a
+  // bitmap node a null key marks a pair whose value is a child node.
+  private abstract static sealed class Node permits BitmapNode, CollisionNode {
+    final Object[] array;
+
+    Node(Object[] array) {
+      this.array = array;
+    }
+
+    abstract Object find(int hash, int shift, Object key);
+
+    abstract Node put(int hash, int shift, Object key, Object value, Change change);
+
+    // Returns null when the last entry is removed
+    abstract Node remove(int hash, int shift, Object key, Change change);
+
+    boolean isSingleEntry() {
+      return array.length == 2 && array[0] != null;
+    }
+  }
+
+  private static final class BitmapNode extends Node {
+    static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    final int bitmap;
+
+    BitmapNode(int bitmap, Object[] array) {
+      super(array);
+      this.bitmap = bitmap;
+    }
+
+    private int slot(int bit) {
+      return 2 * Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    Object find(int hash, int shift, Object key) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return NOT_FOUND;
+      }
+      int i = slot(bit);
+      Object k = array[i];
+      if (k == null) {
+        return ((Node) array[i + 1]).find(hash, shift + BITS, key);
+      }
+      return key.equals(k) ? array[i + 1] : NOT_FOUND;
+    }
+
+    @Override
+    Node put(int hash, int shift, Object key, Object value, Change change) {
+      int bit = bit(hash, shift);
+      int i = slot(bit);
+      if ((bitmap & bit) == 0) {
+        Object[] grown = new Object[array.length + 2];
+        System.arraycopy(array, 0, grown, 0, i);
+        grown[i] = key;
+        grown[i + 1] = value;
+        System.arraycopy(array, i, grown, i + 2, array.length - i);
+        change.sizeDelta = 1;
+        return new BitmapNode(bitmap | bit, grown);
+      }
+
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        Node child = (Node) v;
+        Node updated = child.put(hash, shift + BITS, key, value, change);
+        return updated == child ? this : replace(i, null, updated);
+      }
+      if (key.equals(k)) {
+        return v == value ? this : replace(i, k, value);
+      }
+      change.sizeDelta = 1;
+      return replace(i, null, pair(shift + BITS, k.hashCode(), k, v, hash, key, value));
+    }
+
+    @Override
+    Node remove(int hash, int shift, Object key, Change change) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = slot(bit);
+      Object k = array[i];
+      if (k == null) {
+        Node child = (Node) array[i + 1];
+        Node updated = child.remove(hash, shift + BITS, key, change);
+        if (updated == child) {
+          return this;
+        }
+        if (updated == null) {
+          return without(i, bit);
+        }
+        // Pull a lone remaining entry up, so the trie doesn't keep chains of
+        // single-entry nodes around after removals
+        if (updated.isSingleEntry()) {
+          return replace(i, updated.array[0], updated.array[1]);
+        }
+        return replace(i, null, updated);
+      }
+      if (!key.equals(k)) {
+        return this;
+      }
+      change.sizeDelta = -1;
+      return without(i, bit);
+    }
+
+    private BitmapNode replace(int i, Object key, Object value) {
+      Object[] copy = array.clone();
+      copy[i] = key;
+      copy[i + 1] = value;
+      return new BitmapNode(bitmap, copy);
+    }
+
+    private BitmapNode without(int i, int bit) {
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] shrunk = new Object[array.length - 2];
+      System.arraycopy(array, 0, shrunk, 0, i);
+      System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+      return new BitmapNode(bitmap & ~bit, shrunk);
+    }
+
+    private static Node pair(
+        int shift, int hash1, Object key1, Object value1, int hash2, Object key2, Object value2) {
+      if (hash1 == hash2) {
+        return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+      }
+      int bit1 = bit(hash1, shift);
+      int bit2 = bit(hash2, shift);
+      if (bit1 == bit2) {
+        return new BitmapNode(
+            bit1, new Object[] {null, pair(shift + BITS, hash1, key1, value1, hash2, key2, value2)});
+      }
+      return Integer.compareUnsigned(bit1, bit2) < 0
+          ? new BitmapNode(bit1 | bit2, new Object[] {key1, value1, key2, value2})
+          : new BitmapNode(bit1 | bit2, new Object[] {key2, value2, key1, value1});
+    }
+  }
+
+  // Keys whose full 32-bit hashes are equal
+  private static final class CollisionNode extends Node {
+    final int hash;
+
+    CollisionNode(int hash, Object[] array) {
+      super(array);
+      this.hash = hash;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Object find(int hash, int shift, Object key) {
+      int i = hash == this.hash ? indexOf(key) : -1;
+      return i < 0 ? NOT_FOUND : array[i + 1];
+    }
+
+    @Override
+    Node put(int hash, int shift, Object key, Object value, Change change) {
+      if (hash != this.hash) {
+        // Nest this node under a bitmap node that separates the two hashes
+        BitmapNode parent = new BitmapNode(bit(this.hash, shift), new Object[] {null, this});
+        return parent.put(hash, shift, key, value, change);
+      }
+      int i = indexOf(key);
+      if (i >= 0) {
+        if (array[i + 1] == value) {
+          return this;
+        }
+        Object[] copy = array.clone();
+        copy[i + 1] = value;
+        return new CollisionNode(hash, copy);
+      }
+      Object[] grown = new Object[array.length + 2];
+      System.arraycopy(array, 0, grown, 0, array.length);
+      grown[array.length] = key;
+      grown[array.length + 1] = value;
+      change.sizeDelta = 1;
+      return new CollisionNode(hash, grown);
+    }
+
+    @Override
+    Node remove(int hash, int shift, Object key, Change change) {
+      int i = hash == this.hash ? indexOf(key) : -1;
+      if (i < 0) {
+        return this;
+      }
+      change.sizeDelta = -1;
+      if (array.length == 4) {
+        // One entry left, which the parent will pull up
+        int kept = i == 0 ? 2 : 0;
+        return new BitmapNode(bit(hash, shift), new Object[] {array[kept], array[kept + 1]});
+      }
+      Object[] shrunk = new Object[array.length - 2];
+      System.arraycopy(array, 0, shrunk, 0, i);
+      System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+      return new CollisionNode(hash, shrunk);
+    }
+  }
+
+  // Depth-first walk over the pair arrays, without allocating per entry
+  private static final class ValueIterator<V> implements Iterator<V> {
+    private final Object[][] arrays = new Object[MAX_DEPTH + 1][];
+    private final int[] positions = new int[MAX_DEPTH + 1];
+    private int depth;
+    private Object next = NOT_FOUND;
+
+    ValueIterator(Node root) {
+      arrays[0] = root.array;
+      advance();
+    }
+
+    private void advance() {
+      while (depth >= 0) {
+        Object[] array = arrays[depth];
+        int position = positions[depth];
+        if (position >= array.length) {
+          depth--;
+          continue;
+        }
+        positions[depth] = position + 2;
+        if (array[position] == null) {
+          depth++;
+          arrays[depth] = ((Node) array[position + 1]).array;
+          positions[depth] = 0;
+        } else {
+          next = array[position + 1];
+          return;
+        }
+      }
+      next = NOT_FOUND;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != NOT_FOUND;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V next() {
+      if (next == NOT_FOUND) {
+        throw new NoSuchElementException();
+      }
+      V value = (V) next;
+      advance();
+      return value;
+    }
+  }
+}
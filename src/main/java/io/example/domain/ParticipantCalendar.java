@@ -0,0 +1,69 @@
+package io.example.domain;
+
+import io.example.domain.Participant.ParticipantType;
+import java.util.List;
+import java.util.Optional;
+
+// The status of every slot one participant has had anything to do with in
+// one calendar month: available, unavailable, booked or canceled, with the
+// booking ID for the last two. It takes the place of one tiny participant slot
+// per slot. The slots are held sorted by slot ID in a few flat arrays rather
+// than as a map of objects, so a month of hourly slots stays small, and a range
+// of slots is found by binary search. Updates return a new calendar.
+public record ParticipantCalendar(
+    String participantId, ParticipantType participantType, List<CalendarSlot> slots) {
+
+  public ParticipantCalendar {
+    slots = CalendarSlots.of(slots);
+  }
+
+  public static ParticipantCalendar empty() {
+    return new ParticipantCalendar(null, null, CalendarSlots.EMPTY);
+  }
+
+  public ParticipantCalendar markAvailable(
+      String slotId, String participantId, ParticipantType participantType) {
+    return with(participantId, participantType, slotId, CalendarSlots.AVAILABLE, null);
+  }
+
+  public ParticipantCalendar unmarkAvailable(
+      String slotId, String participantId, ParticipantType participantType) {
+    return with(participantId, participantType, slotId, CalendarSlots.UNAVAILABLE, null);
+  }
+
+  public ParticipantCalendar book(
+      String slotId, String participantId, ParticipantType participantType, String bookingId) {
+    return with(participantId, participantType, slotId, CalendarSlots.BOOKED, bookingId);
+  }
+
+  public ParticipantCalendar cancel(
+      String slotId, String participantId, ParticipantType participantType, String bookingId) {
+    return with(participantId, participantType, slotId, CalendarSlots.CANCELED, bookingId);
+  }
+
+  public Optional<CalendarSlot> find(String slotId) {
+    return Optional.ofNullable(calendarSlots().find(slotId));
+  }
+
+  // Slots from fromSlotId to toSlotId, both included, in slot ID order. A
+  // null status matches every slot.
+  public List<CalendarSlot> between(String fromSlotId, String toSlotId, String status) {
+    return calendarSlots().between(fromSlotId, toSlotId, status);
+  }
+
+  private ParticipantCalendar with(
+      String participantId, ParticipantType participantType, String slotId, byte status, String bookingId) {
+    CalendarSlots updated = calendarSlots().with(slotId, status, bookingId);
+    if (updated == slots && participantId.equals(this.participantId)) {
+      return this;
+    }
+    return new ParticipantCalendar(participantId, participantType, updated);
+  }
+
+  private CalendarSlots calendarSlots() {
+    return (CalendarSlots) slots;
+  }
+
+  // bookingId is null for available and unavailable slots
+  public record CalendarSlot(String slotId, String status, String bookingId) {}
+}
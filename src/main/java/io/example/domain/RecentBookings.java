@@ -0,0 +1,80 @@
+package io.example.domain;
+
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot.Reservation;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+
+// The last CAPACITY bookings made in a timeslot, oldest first, whether or not
+// they have been canceled since. It lets the slot recognise a booking request
+// it has already carried out. Lookups by booking ID go through a
+// HashTrieMap; the order is a small array copied on every new booking. It is
+// immutable, and a plain List<Reservation> to everyone else.
+final class RecentBookings extends AbstractList<Reservation> {
+
+  static final int CAPACITY = 64;
+
+  static final RecentBookings EMPTY = new RecentBookings(HashTrieMap.empty(), new String[0]);
+
+  private final HashTrieMap<String, Reservation> byBookingId;
+  private final String[] order;
+
+  private RecentBookings(HashTrieMap<String, Reservation> byBookingId, String[] order) {
+    this.byBookingId = byBookingId;
+    this.order = order;
+  }
+
+  static RecentBookings of(Collection<Reservation> reservations) {
+    if (reservations == null) {
+      return EMPTY;
+    }
+    if (reservations instanceof RecentBookings recent) {
+      return recent;
+    }
+    RecentBookings recent = EMPTY;
+    for (Reservation reservation : reservations) {
+      recent = recent.with(reservation);
+    }
+    return recent;
+  }
+
+  Reservation find(String bookingId) {
+    return byBookingId.get(bookingId);
+  }
+
+  RecentBookings with(Reservation reservation) {
+    if (byBookingId.containsKey(reservation.bookingId())) {
+      return new RecentBookings(byBookingId.plus(reservation.bookingId(), reservation), order);
+    }
+    HashTrieMap<String, Reservation> updated = byBookingId;
+    String[] grown;
+    if (order.length < CAPACITY) {
+      grown = Arrays.copyOf(order, order.length + 1);
+    } else {
+      updated = updated.minus(order[0]);
+      grown = Arrays.copyOfRange(order, 1, order.length + 1);
+    }
+    grown[grown.length - 1] = reservation.bookingId();
+    return new RecentBookings(updated.plus(reservation.bookingId(), reservation), grown);
+  }
+
+  // Bookings written one participant at a time fill in their entry as they go
+  RecentBookings with(String bookingId, String participantId, ParticipantType participantType) {
+    Reservation reservation = byBookingId.get(bookingId);
+    if (reservation == null) {
+      reservation = new Reservation(bookingId, null, null, null);
+    }
+    return with(reservation.with(participantId, participantType));
+  }
+
+  @Override
+  public Reservation get(int index) {
+    return byBookingId.get(order[index]);
+  }
+
+  @Override
+  public int size() {
+    return order.length;
+  }
+}
@@ -2,38 +2,84 @@ package io.example.domain;
 
 import io.example.domain.Participant.ParticipantType;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 // The Timeslot is a core domain object. It maintain two internal sets:
 // the list of bookings and the list of participants available for booking.
 // As bookings and availability are added and removed, the contents of those
 // sets are shifted from one to the other.
-public record Timeslot(Set<Booking> bookings, Set<Participant> available) {
+//
+// Both sets are indexed (bookings by booking ID, and both sets by participant
+// type and ID), so lookups, bookability checks and cancellations don't depend
+// on how many bookings the slot has accumulated, and checking a participant
+// allocates nothing. They are also persistent: every
+// change returns a new Timeslot that shares structure with the previous one,
+// which is never modified. Both sets serialize as plain arrays of bookings and
+// participants, as they always have.
+//
+// recentBookings remembers the last bookings made in the slot, canceled or
+// not, so a booking request that arrives again can be recognised. State written
+// before it existed reads as having none.
+public record Timeslot(
+    Set<Booking> bookings, Set<Participant> available, List<Reservation> recentBookings) {
 
-  public Timeslot reserve(BookingEvent.ParticipantMarkedAvailable reserved) {
-    available.add(new Participant(reserved.participantId(), reserved.participantType()));
+  public Timeslot {
+    bookings = BookingSet.of(bookings);
+    available = AvailabilitySet.of(available);
+    recentBookings = RecentBookings.of(recentBookings);
+  }
 
-    return new Timeslot(bookings, available);
+  public Timeslot(Set<Booking> bookings, Set<Participant> available) {
+    this(bookings, available, RecentBookings.EMPTY);
   }
 
-  public Timeslot unreserve(BookingEvent.ParticipantUnmarkedAvailable unreserved) {
-    available.remove(new Participant(unreserved.participantId(), unreserved.participantType()));
+  public static Timeslot empty() {
+    return new Timeslot(BookingSet.EMPTY, AvailabilitySet.EMPTY, RecentBookings.EMPTY);
+  }
+
+  public Timeslot reserve(BookingEvent.ParticipantMarkedAvailable reserved) {
+    return new Timeslot(
+        bookings,
+        availableSet().with(reserved.participantId(), reserved.participantType()),
+        recentBookings);
+  }
 
-    return new Timeslot(bookings, available);
+  public Timeslot unreserve(BookingEvent.ParticipantUnmarkedAvailable unreserved) {
+    return new Timeslot(
+        bookings,
+        availableSet().without(unreserved.participantId(), unreserved.participantType()),
+        recentBookings);
   }
 
   public Timeslot book(BookingEvent.ParticipantBooked booked) {
-    Participant p = new Participant(booked.participantId(), booked.participantType());
-    available.remove(p);
-    bookings.add(new Booking(p, booked.bookingId()));
+    return new Timeslot(
+        bookingSet().with(booked.participantId(), booked.participantType(), booked.bookingId()),
+        availableSet().without(booked.participantId(), booked.participantType()),
+        recentBookingList().with(booked.bookingId(), booked.participantId(), booked.participantType()));
+  }
 
-    return new Timeslot(bookings, available);
+  // Books all three participants of a reservation in one step
+  public Timeslot book(BookingEvent.ReservationBooked booked) {
+    return new Timeslot(
+        bookingSet().withReservation(
+            booked.bookingId(), booked.studentId(), booked.aircraftId(), booked.instructorId()),
+        availableSet()
+            .without(booked.studentId(), ParticipantType.STUDENT)
+            .without(booked.aircraftId(), ParticipantType.AIRCRAFT)
+            .without(booked.instructorId(), ParticipantType.INSTRUCTOR),
+        recentBookingList().with(new Reservation(
+            booked.bookingId(), booked.studentId(), booked.aircraftId(), booked.instructorId())));
   }
 
   // Checks to see if the given participant is among those marked as available
   public boolean isWaiting(String participantId, ParticipantType participantType) {
-    return available.contains(new Participant(participantId, participantType));
+    return availableSet().contains(participantId, participantType);
+  }
+
+  // Checks to see if the given participant holds a booking in this slot
+  public boolean isBooked(String participantId, ParticipantType participantType) {
+    return bookingSet().containsParticipant(participantId, participantType);
   }
 
   public boolean isBookable(String studentId, String aircraftId, String instructorId) {
@@ -46,16 +92,51 @@ public record Timeslot(Set<Booking> bookings, Set<Participant> available) {
   // be 3 participants for a single booking, so this will usually return no items
   // or 3 items.
   public List<Booking> findBooking(String bookingId) {
-    return bookings.stream().filter(b -> b.bookingId().equals(bookingId)).toList();
+    return bookingSet().find(bookingId);
+  }
+
+  // Looks a booking ID up among the bookings recently made in this slot, even
+  // if the booking has been canceled since
+  public Optional<Reservation> findRecentBooking(String bookingId) {
+    return Optional.ofNullable(recentBookingList().find(bookingId));
   }
 
   // Removes all three participants of a booking from the booking list. It does
   // not automatically mark them as available for that slot.
   public Timeslot cancelBooking(String bookingId) {
-    Set<Booking> books =
-        bookings.stream().filter(b -> !b.bookingId().equals(bookingId)).collect(Collectors.toSet());
-    return new Timeslot(books, available);
+    return new Timeslot(bookingSet().withoutBooking(bookingId), available, recentBookings);
+  }
+
+  private BookingSet bookingSet() {
+    return (BookingSet) bookings;
+  }
+
+  private AvailabilitySet availableSet() {
+    return (AvailabilitySet) available;
+  }
+
+  private RecentBookings recentBookingList() {
+    return (RecentBookings) recentBookings;
   }
 
   public record Booking(Participant participant, String bookingId) {}
+
+  // The participants a booking was made for
+  public record Reservation(
+      String bookingId, String studentId, String aircraftId, String instructorId) {
+
+    public boolean isFor(String studentId, String aircraftId, String instructorId) {
+      return studentId.equals(this.studentId)
+          && aircraftId.equals(this.aircraftId)
+          && instructorId.equals(this.instructorId);
+    }
+
+    Reservation with(String participantId, ParticipantType participantType) {
+      return switch (participantType) {
+        case STUDENT -> new Reservation(bookingId, participantId, aircraftId, instructorId);
+        case AIRCRAFT -> new Reservation(bookingId, studentId, participantId, instructorId);
+        case INSTRUCTOR -> new Reservation(bookingId, studentId, aircraftId, participantId);
+      };
+    }
+  }
 }
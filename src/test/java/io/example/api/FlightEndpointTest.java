@@ -1,4 +1,133 @@
 package io.example.api;
 
-public class FlightEndpointTest {
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.api.FlightEndpoint.BatchAvailabilityRequest;
+import io.example.api.FlightEndpoint.BatchAvailabilityResponse;
+import io.example.api.FlightEndpoint.BatchItem;
+import io.example.api.FlightEndpoint.BatchItemResult;
+import io.example.api.FlightEndpoint.BookingRequest;
+import io.example.api.FlightEndpoint.SlotRangeRequest;
+import io.example.application.BookingSlotEntity;
+import io.example.application.BookingWorkflow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightEndpointTest extends TestKitSupport {
+
+    private static final int MAX_ITEMS = 5;
+
+    @Override
+    protected TestKit.Settings testKitSettings() {
+        return TestKit.Settings.DEFAULT
+                .withAdditionalConfig("""
+                        akka.javasdk.agent.openai.api-key = n/a
+                        flight-availability.batch.max-items = %d
+                        # every new booking is turned away
+                        flight-bookings.admission.max-queued = 0
+                        """.formatted(MAX_ITEMS));
+    }
+
+    @Test
+    public void marksEveryHourOfARange() {
+        var response = markBatch(new BatchAvailabilityRequest(null,
+                new SlotRangeRequest("range-student", "student", "2030-01-01-22", "2030-01-02-01")));
+
+        assertThat(response.succeeded()).isEqualTo(4);
+        assertThat(response.failed()).isZero();
+        assertThat(response.results()).extracting(BatchItemResult::slotId)
+                .containsExactly("2030-01-01-22", "2030-01-01-23", "2030-01-02-00", "2030-01-02-01");
+        assertThat(response.results()).extracting(BatchItemResult::participantId).containsOnly("range-student");
+    }
+
+    @Test
+    public void turnsAwayABatchOverTheMaxItems() {
+        var range = httpClient.POST("/flight/availability:batch")
+                .withRequestBody(new BatchAvailabilityRequest(null,
+                        new SlotRangeRequest("too-many", "aircraft", "2030-02-01-08", "2030-02-01-13")))
+                .invoke();
+        assertThat(range.status().intValue()).isEqualTo(400);
+
+        // Items and range count together
+        var itemsAndRange = httpClient.POST("/flight/availability:batch")
+                .withRequestBody(new BatchAvailabilityRequest(
+                        List.of(new BatchItem("2030-02-02-08", "too-many", "aircraft"),
+                                new BatchItem("2030-02-02-09", "too-many", "aircraft")),
+                        new SlotRangeRequest("too-many", "aircraft", "2030-02-03-08", "2030-02-03-11")))
+                .invoke();
+        assertThat(itemsAndRange.status().intValue()).isEqualTo(400);
+
+        var atTheLimit = markBatch(new BatchAvailabilityRequest(null,
+                new SlotRangeRequest("at-the-limit", "aircraft", "2030-02-04-08", "2030-02-04-12")));
+        assertThat(atTheLimit.succeeded()).isEqualTo(MAX_ITEMS);
+    }
+
+    @Test
+    public void reportsEachItemsOwnFailure() {
+        markBatch(new BatchAvailabilityRequest(
+                List.of(new BatchItem("2030-03-01-09", "already-there", "instructor")), null));
+
+        var response = markBatch(new BatchAvailabilityRequest(List.of(
+                new BatchItem("2030-03-01-08", "fresh", "instructor"),
+                new BatchItem("2030-03-01-09", "already-there", "instructor"),
+                new BatchItem("2030-03-01-10", "no-type", "pilot"),
+                new BatchItem("2030-03-01-11", "", "student")), null));
+
+        assertThat(response.succeeded()).isEqualTo(1);
+        assertThat(response.failed()).isEqualTo(3);
+        List<BatchItemResult> results = response.results();
+        assertThat(results).extracting(BatchItemResult::slotId)
+                .containsExactly("2030-03-01-08", "2030-03-01-09", "2030-03-01-10", "2030-03-01-11");
+        assertThat(results.get(0).succeeded()).isTrue();
+        assertThat(results.get(0).error()).isNull();
+        assertThat(results.get(1).error()).contains("already available");
+        assertThat(results.get(2).error()).contains("participantType");
+        assertThat(results.get(3).error()).contains("participantId");
+    }
+
+    @Test
+    public void answersARetriedBookingWhileNewOnesAreTurnedAway() {
+        componentClient.forWorkflow(BookingWorkflow.workflowId("2030-04-01-10", "retried"))
+                .method(BookingWorkflow::start)
+                .invoke(new BookingWorkflow.Start("2030-04-01-10", "retried", "student", "aircraft", "instructor"));
+
+        var retried = httpClient.POST("/flight/bookings/2030-04-01-10")
+                .withRequestBody(new BookingRequest("student", "aircraft", "instructor", "retried"))
+                .invoke();
+        var fresh = httpClient.POST("/flight/bookings/2030-04-01-10")
+                .withRequestBody(new BookingRequest("student", "aircraft", "instructor", "fresh"))
+                .invoke();
+
+        assertThat(retried.status().intValue()).isEqualTo(202);
+        assertThat(fresh.status().intValue()).isEqualTo(429);
+    }
+
+    @Test
+    public void showsASlotWithoutItsRecentBookings() {
+        String slotId = "2030-05-01-10";
+        markBatch(new BatchAvailabilityRequest(List.of(
+                new BatchItem(slotId, "shown-student", "student"),
+                new BatchItem(slotId, "shown-aircraft", "aircraft"),
+                new BatchItem(slotId, "shown-instructor", "instructor")), null));
+        componentClient.forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::bookSlot)
+                .invoke(new BookingSlotEntity.Command.BookReservation(
+                        "shown-student", "shown-aircraft", "shown-instructor", "shown-booking"));
+
+        String json = httpClient.GET("/flight/availability/" + slotId).invoke().body().utf8String();
+
+        assertThat(json).contains("\"bookings\"", "\"available\"", "shown-booking");
+        assertThat(json).doesNotContain("recentBookings");
+    }
+
+    private BatchAvailabilityResponse markBatch(BatchAvailabilityRequest request) {
+        return httpClient.POST("/flight/availability:batch")
+                .withRequestBody(request)
+                .responseBodyAs(BatchAvailabilityResponse.class)
+                .invoke()
+                .body();
+    }
 }
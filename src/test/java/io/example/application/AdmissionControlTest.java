@@ -0,0 +1,67 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdmissionControlTest {
+
+    @Test
+    public void turnsRequestsAwayWhileTheQueueIsFull() {
+        AdmissionControl admission = new AdmissionControl(
+                "test_queue_full", 1, 2, Duration.ofMinutes(1), Duration.ofSeconds(5));
+        CompletableFuture<String> running = new CompletableFuture<>();
+        admission.submit(() -> running);
+        admission.submit(() -> CompletableFuture.completedFuture("first"));
+        assertThat(admission.admit()).isEmpty();
+
+        var queued = admission.submit(() -> CompletableFuture.completedFuture("second"));
+        assertThat(admission.admit()).hasValueSatisfying(rejection -> {
+            assertThat(rejection.reason()).isEqualTo(AdmissionControl.Reason.QUEUE_FULL);
+            assertThat(rejection.retryAfter()).isEqualTo(Duration.ofSeconds(5));
+        });
+
+        running.complete("done");
+        assertThat(queued.toCompletableFuture().join()).isEqualTo("second");
+        assertThat(admission.admit()).isEmpty();
+    }
+
+    @Test
+    public void letsAStartedRequestThroughAndOnlyAsksWhenTurningAway() {
+        AdmissionControl admission = new AdmissionControl(
+                "test_already_started", 1, 1, Duration.ofMinutes(1), Duration.ofSeconds(5));
+        AtomicInteger asked = new AtomicInteger();
+
+        assertThat(admission.admit(() -> asked.incrementAndGet() > 0)).isEmpty();
+        assertThat(asked.get()).isZero();
+
+        CompletableFuture<String> running = new CompletableFuture<>();
+        admission.submit(() -> running);
+        admission.submit(() -> CompletableFuture.completedFuture("queued"));
+
+        assertThat(admission.admit(() -> asked.incrementAndGet() > 0)).isEmpty();
+        assertThat(admission.admit(() -> asked.incrementAndGet() < 0)).hasValueSatisfying(rejection ->
+                assertThat(rejection.reason()).isEqualTo(AdmissionControl.Reason.QUEUE_FULL));
+        assertThat(asked.get()).isEqualTo(2);
+        running.complete("done");
+    }
+
+    @Test
+    public void turnsRequestsAwayWhileTheQueueIsSlow() throws Exception {
+        AdmissionControl admission = new AdmissionControl(
+                "test_queue_slow", 1, 100, Duration.ofMillis(10), Duration.ofSeconds(1));
+        CompletableFuture<String> running = new CompletableFuture<>();
+        admission.submit(() -> running);
+        admission.submit(() -> CompletableFuture.completedFuture("waiting"));
+
+        Thread.sleep(50);
+
+        assertThat(admission.admit()).hasValueSatisfying(rejection ->
+                assertThat(rejection.reason()).isEqualTo(AdmissionControl.Reason.QUEUE_TOO_SLOW));
+        running.complete("done");
+        assertThat(admission.admit()).isEmpty();
+    }
+}
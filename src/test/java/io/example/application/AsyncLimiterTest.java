@@ -0,0 +1,112 @@
+package io.example.application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncLimiterTest {
+
+    @Test
+    public void startsQueuedOperationsInSubmissionOrder() {
+        AsyncLimiter limiter = new AsyncLimiter(1);
+        CompletableFuture<Integer> running = new CompletableFuture<>();
+        List<Integer> started = new CopyOnWriteArrayList<>();
+        limiter.submit(() -> running);
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            limiter.submit(() -> {
+                started.add(n);
+                return CompletableFuture.completedFuture(n);
+            });
+        }
+        assertThat(started).isEmpty();
+        assertThat(limiter.queued()).isEqualTo(5);
+
+        running.complete(-1);
+
+        assertThat(started).containsExactly(0, 1, 2, 3, 4);
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.queued()).isZero();
+    }
+
+    @Test
+    public void neverRunsMoreThanTheLimitAtOnce() {
+        AsyncLimiter limiter = new AsyncLimiter(3);
+        List<CompletableFuture<Integer>> pending = new CopyOnWriteArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        List<CompletionStage<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(limiter.submit(() -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                CompletableFuture<Integer> operation = new CompletableFuture<>();
+                pending.add(operation);
+                return operation;
+            }));
+        }
+        assertThat(limiter.inFlight()).isEqualTo(3);
+        assertThat(limiter.queued()).isEqualTo(17);
+
+        for (int i = 0; i < 20; i++) {
+            running.decrementAndGet();
+            pending.get(i).complete(i);
+            assertThat(limiter.inFlight()).isLessThanOrEqualTo(3);
+        }
+
+        assertThat(mostRunning.get()).isEqualTo(3);
+        for (int i = 0; i < 20; i++) {
+            assertThat(results.get(i).toCompletableFuture().join()).isEqualTo(i);
+        }
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    public void worksThroughALongQueueOfCompletedFuturesWithoutNesting() {
+        AsyncLimiter limiter = new AsyncLimiter(1);
+        CompletableFuture<Integer> running = new CompletableFuture<>();
+        AtomicInteger deepestStack = new AtomicInteger();
+        List<CompletionStage<Integer>> results = new ArrayList<>();
+        limiter.submit(() -> running);
+        for (int i = 0; i < 100_000; i++) {
+            int n = i;
+            results.add(limiter.submit(() -> {
+                deepestStack.accumulateAndGet(Thread.currentThread().getStackTrace().length, Math::max);
+                return CompletableFuture.completedFuture(n);
+            }));
+        }
+        int stackBefore = Thread.currentThread().getStackTrace().length;
+
+        running.complete(-1);
+
+        // Each queued operation is started from the same loop, not from inside
+        // the completion of the one before it
+        assertThat(deepestStack.get()).isLessThan(stackBefore + 50);
+        assertThat(results.getLast().toCompletableFuture().join()).isEqualTo(99_999);
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.queued()).isZero();
+    }
+
+    @Test
+    public void failsAnOperationWhoseSupplierThrowsAndStartsTheNext() {
+        AsyncLimiter limiter = new AsyncLimiter(1);
+        CompletableFuture<String> running = new CompletableFuture<>();
+        limiter.submit(() -> running);
+        CompletionStage<String> failing = limiter.submit(() -> {
+            throw new IllegalStateException("no slot");
+        });
+        CompletionStage<String> next = limiter.submit(() -> CompletableFuture.completedFuture("next"));
+
+        running.complete("done");
+
+        assertThat(failing.toCompletableFuture()).isCompletedExceptionally();
+        assertThat(failing.toCompletableFuture().exceptionNow()).isInstanceOf(IllegalStateException.class);
+        assertThat(next.toCompletableFuture().join()).isEqualTo("next");
+        assertThat(limiter.inFlight()).isZero();
+    }
+}
@@ -0,0 +1,79 @@
+package io.example.application;
+
+import akka.javasdk.testkit.EventSourcedTestKit;
+import io.example.application.BookingSlotEntity.Command;
+import io.example.domain.BookingEvent;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookingSlotEntityTest {
+
+    private static final String SLOT_ID = "2025-12-10-10";
+
+    @Test
+    public void booksAndCancelsAllThreeParticipants() {
+        var testKit = EventSourcedTestKit.of(SLOT_ID, BookingSlotEntity::new);
+        markAvailable(testKit, "alice", ParticipantType.STUDENT);
+        markAvailable(testKit, "superplane", ParticipantType.AIRCRAFT);
+        markAvailable(testKit, "superteacher", ParticipantType.INSTRUCTOR);
+
+        var booked = testKit.method(BookingSlotEntity::bookSlot)
+                .invoke(new Command.BookReservation("alice", "superplane", "superteacher", "booking4"));
+        assertThat(booked.getAllEvents()).containsExactly(new BookingEvent.ReservationBooked(
+                SLOT_ID, "booking4", "alice", "superplane", "superteacher"));
+        Timeslot slot = testKit.getState();
+        assertThat(slot.available()).isEmpty();
+        assertThat(slot.findBooking("booking4")).hasSize(3);
+
+        var canceled = testKit.method(BookingSlotEntity::cancelBooking).invoke("booking4");
+        assertThat(canceled.getAllEvents()).containsExactly(new BookingEvent.ReservationCanceled(
+                SLOT_ID, "booking4", "alice", "superplane", "superteacher"));
+        assertThat(testKit.getState().bookings()).isEmpty();
+    }
+
+    @Test
+    public void rejectsBookingWhenAParticipantIsNotAvailable() {
+        var testKit = EventSourcedTestKit.of(SLOT_ID, BookingSlotEntity::new);
+        markAvailable(testKit, "alice", ParticipantType.STUDENT);
+        markAvailable(testKit, "superplane", ParticipantType.AIRCRAFT);
+
+        var result = testKit.method(BookingSlotEntity::bookSlot)
+                .invoke(new Command.BookReservation("alice", "superplane", "superteacher", "booking4"));
+
+        assertThat(result.isError()).isTrue();
+        assertThat(result.getAllEvents()).isEmpty();
+    }
+
+    @Test
+    public void answersARetriedBookingWithoutBookingAgain() {
+        var testKit = EventSourcedTestKit.of(SLOT_ID, BookingSlotEntity::new);
+        markAvailable(testKit, "alice", ParticipantType.STUDENT);
+        markAvailable(testKit, "superplane", ParticipantType.AIRCRAFT);
+        markAvailable(testKit, "superteacher", ParticipantType.INSTRUCTOR);
+        var request = new Command.BookReservation("alice", "superplane", "superteacher", "booking4");
+        testKit.method(BookingSlotEntity::bookSlot).invoke(request);
+        testKit.method(BookingSlotEntity::cancelBooking).invoke("booking4");
+
+        var retried = testKit.method(BookingSlotEntity::bookSlot).invoke(request);
+        assertThat(retried.isError()).isFalse();
+        assertThat(retried.getAllEvents()).isEmpty();
+        assertThat(testKit.getState().bookings()).isEmpty();
+
+        var reused = testKit.method(BookingSlotEntity::bookSlot)
+                .invoke(new Command.BookReservation("bob", "superplane", "superteacher", "booking4"));
+        assertThat(reused.isError()).isTrue();
+        assertThat(reused.getAllEvents()).isEmpty();
+    }
+
+    private static void markAvailable(
+            EventSourcedTestKit<Timeslot, BookingEvent, BookingSlotEntity> testKit,
+            String participantId,
+            ParticipantType participantType) {
+        testKit.method(BookingSlotEntity::markSlotAvailable)
+                .invoke(new Command.MarkSlotAvailable(new Participant(participantId, participantType)));
+    }
+}
@@ -0,0 +1,109 @@
+package io.example.application;
+
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import akka.javasdk.testkit.TestModelProvider;
+import io.example.application.BookingWorkflow.BookingState;
+import io.example.application.BookingWorkflow.Start;
+import io.example.application.BookingWorkflow.Status;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The book step times out on every attempt, though the booking slot applies
+// the booking each time it is asked, so booking always fails over to
+// compensation
+public class BookingWorkflowCompensationTest extends TestKitSupport {
+
+    private static final String SLOT_ID = "2031-06-01-10";
+
+    private final TestModelProvider conditionsModel = new TestModelProvider();
+
+    @Override
+    protected TestKit.Settings testKitSettings() {
+        return TestKit.Settings.DEFAULT
+                .withAdditionalConfig("""
+                        akka.javasdk.agent.openai.api-key = n/a
+                        flight-conditions.rule-based-enabled = false
+                        flight-conditions.prefetch.enabled = false
+                        booking-workflow {
+                          book-timeout = 1ms
+                          max-retries = 1
+                        }
+                        """)
+                .withModelProvider(FlightConditionsAgent.class, conditionsModel);
+    }
+
+    @Test
+    public void keepsABookingThatLandedWhenBookingKeptFailing() throws InterruptedException {
+        conditionsModel.fixedResponse("""
+                {"timeSlotId": "%s", "meetsRequirements": true}
+                """.formatted(SLOT_ID));
+        markAvailable("late-student", ParticipantType.STUDENT);
+        markAvailable("late-aircraft", ParticipantType.AIRCRAFT);
+        markAvailable("late-instructor", ParticipantType.INSTRUCTOR);
+
+        long cancelsBefore = commands("cancel", "accepted");
+
+        componentClient.forWorkflow(BookingWorkflow.workflowId(SLOT_ID, "late-booking"))
+                .method(BookingWorkflow::start)
+                .invoke(new Start(SLOT_ID, "late-booking", "late-student", "late-aircraft", "late-instructor"));
+
+        // The booking landed although every attempt timed out, so compensation
+        // finds it and the booking stands
+        assertThat(eventually(() -> state().status() != Status.CHECKING && state().status() != Status.BOOKING))
+                .isTrue();
+        assertThat(commands("book", "accepted")).isPositive();
+        assertThat(state().status()).isEqualTo(Status.BOOKED);
+        assertThat(state().reason()).isNull();
+        assertThat(commands("cancel", "accepted")).isEqualTo(cancelsBefore);
+
+        Timeslot slot = componentClient.forEventSourcedEntity(SLOT_ID)
+                .method(BookingSlotEntity::getSlot)
+                .invoke();
+        assertThat(slot.findBooking("late-booking")).hasSize(3);
+        assertThat(slot.isBooked("late-student", ParticipantType.STUDENT)).isTrue();
+        assertThat(slot.isBooked("late-aircraft", ParticipantType.AIRCRAFT)).isTrue();
+        assertThat(slot.isBooked("late-instructor", ParticipantType.INSTRUCTOR)).isTrue();
+        assertThat(slot.available()).isEmpty();
+    }
+
+    // The service runs in this JVM, so its metrics are the entity's own counts
+    private static long commands(String command, String outcome) {
+        return Metrics.all().stream()
+                .filter(metric -> metric.name().equals("booking_slot_commands_total")
+                        && metric.labels().equals(Map.of("command", command, "outcome", outcome)))
+                .mapToLong(metric -> ((Metrics.Counter) metric).value())
+                .sum();
+    }
+
+    private BookingState state() {
+        return componentClient.forWorkflow(BookingWorkflow.workflowId(SLOT_ID, "late-booking"))
+                .method(BookingWorkflow::getState)
+                .invoke();
+    }
+
+    private void markAvailable(String participantId, ParticipantType participantType) {
+        componentClient.forEventSourcedEntity(SLOT_ID)
+                .method(BookingSlotEntity::markSlotAvailable)
+                .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(
+                        new Participant(participantId, participantType)));
+    }
+
+    private static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 20_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(100);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,174 @@
+package io.example.application;
+
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import akka.javasdk.testkit.TestModelProvider;
+import io.example.application.BookingWorkflow.BookingState;
+import io.example.application.BookingWorkflow.Start;
+import io.example.application.BookingWorkflow.Status;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.Timeslot;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BookingWorkflowTest extends TestKitSupport {
+
+    private final TestModelProvider conditionsModel = new TestModelProvider();
+
+    @Override
+    protected TestKit.Settings testKitSettings() {
+        return TestKit.Settings.DEFAULT
+                .withAdditionalConfig("""
+                        akka.javasdk.agent.openai.api-key = n/a
+                        # the model answers, and its report is cached for the slot
+                        flight-conditions.rule-based-enabled = false
+                        flight-conditions.prefetch.enabled = false
+                        """)
+                .withModelProvider(FlightConditionsAgent.class, conditionsModel);
+    }
+
+    @Test
+    public void booksASlotWhoseParticipantsAreWaitingAndConditionsAllow() throws InterruptedException {
+        String slotId = "2031-05-01-10";
+        conditionsMeetRequirements(slotId, true);
+        markAvailable(slotId, "booked-student", "booked-aircraft", "booked-instructor");
+
+        BookingState started = start(slotId, "booking-1", "booked-student", "booked-aircraft", "booked-instructor");
+        BookingState ended = awaitOutcome(slotId, "booking-1");
+
+        assertThat(started.status()).isEqualTo(Status.CHECKING);
+        assertThat(ended.status()).isEqualTo(Status.BOOKED);
+        assertThat(ended.reason()).isNull();
+        Timeslot slot = slot(slotId);
+        assertThat(slot.findBooking("booking-1")).hasSize(3);
+        assertThat(slot.available()).isEmpty();
+
+        // The slot's report is cached now, so the model isn't asked again
+        conditionsMeetRequirements(slotId, false);
+        markAvailable(slotId, "second-student", "second-aircraft", "second-instructor");
+        start(slotId, "booking-1b", "second-student", "second-aircraft", "second-instructor");
+        assertThat(awaitOutcome(slotId, "booking-1b").status()).isEqualTo(Status.BOOKED);
+    }
+
+    @Test
+    public void rejectsABookingWhoseParticipantsAreNotAllWaiting() throws InterruptedException {
+        String slotId = "2031-05-01-11";
+        conditionsMeetRequirements(slotId, true);
+        markAvailable(slotId, "lonely-student", "lonely-aircraft", null);
+
+        start(slotId, "booking-2", "lonely-student", "lonely-aircraft", "missing-instructor");
+        BookingState ended = awaitOutcome(slotId, "booking-2");
+
+        assertThat(ended.status()).isEqualTo(Status.REJECTED);
+        assertThat(ended.reason()).contains("not all participants");
+        assertThat(slot(slotId).findBooking("booking-2")).isEmpty();
+        assertThat(slot(slotId).available()).hasSize(2);
+    }
+
+    @Test
+    public void rejectsABookingWhenConditionsDoNotAllowIt() throws InterruptedException {
+        String slotId = "2031-05-01-12";
+        conditionsMeetRequirements(slotId, false);
+        markAvailable(slotId, "grounded-student", "grounded-aircraft", "grounded-instructor");
+
+        start(slotId, "booking-3", "grounded-student", "grounded-aircraft", "grounded-instructor");
+        BookingState ended = awaitOutcome(slotId, "booking-3");
+
+        assertThat(ended.status()).isEqualTo(Status.REJECTED);
+        assertThat(ended.reason()).contains("flight conditions");
+        assertThat(slot(slotId).findBooking("booking-3")).isEmpty();
+        assertThat(slot(slotId).available()).hasSize(3);
+    }
+
+    @Test
+    public void startingTheSameBookingAgainReportsOnTheFirst() throws InterruptedException {
+        String slotId = "2031-05-01-13";
+        conditionsMeetRequirements(slotId, true);
+        markAvailable(slotId, "twice-student", "twice-aircraft", "twice-instructor");
+
+        BookingState first = start(slotId, "booking-4", "twice-student", "twice-aircraft", "twice-instructor");
+        awaitOutcome(slotId, "booking-4");
+        BookingState again = start(slotId, "booking-4", "twice-student", "twice-aircraft", "twice-instructor");
+
+        assertThat(again.status()).isEqualTo(Status.BOOKED);
+        assertThat(again.startedAt()).isEqualTo(first.startedAt());
+        assertThat(slot(slotId).findBooking("booking-4")).hasSize(3);
+
+        assertThatThrownBy(() -> start(slotId, "booking-4", "other-student", "twice-aircraft", "twice-instructor"))
+                .hasMessageContaining("other participants");
+        assertThat(awaitOutcome(slotId, "booking-4").studentId()).isEqualTo("twice-student");
+    }
+
+    @Test
+    public void reportsACanceledBookingAsCanceled() throws InterruptedException {
+        String slotId = "2031-05-01-14";
+        conditionsMeetRequirements(slotId, true);
+        markAvailable(slotId, "canceled-student", "canceled-aircraft", "canceled-instructor");
+        start(slotId, "booking-5", "canceled-student", "canceled-aircraft", "canceled-instructor");
+        assertThat(awaitOutcome(slotId, "booking-5").status()).isEqualTo(Status.BOOKED);
+
+        var canceled = httpClient.DELETE("/flight/bookings/" + slotId + "/booking-5").invoke();
+
+        assertThat(canceled.status().intValue()).isEqualTo(200);
+        assertThat(slot(slotId).findBooking("booking-5")).isEmpty();
+        BookingState state = httpClient.GET("/flight/bookings/" + slotId + "/booking-5")
+                .responseBodyAs(BookingState.class)
+                .invoke()
+                .body();
+        assertThat(state.status()).isEqualTo(Status.CANCELED);
+        assertThat(state.studentId()).isEqualTo("canceled-student");
+    }
+
+    // What the model answers; the agent caches the report for the slot
+    private void conditionsMeetRequirements(String slotId, boolean meetsRequirements) {
+        conditionsModel.fixedResponse("""
+                {"timeSlotId": "%s", "meetsRequirements": %b}
+                """.formatted(slotId, meetsRequirements));
+    }
+
+    private void markAvailable(String slotId, String studentId, String aircraftId, String instructorId) {
+        markAvailable(slotId, studentId, ParticipantType.STUDENT);
+        markAvailable(slotId, aircraftId, ParticipantType.AIRCRAFT);
+        markAvailable(slotId, instructorId, ParticipantType.INSTRUCTOR);
+    }
+
+    private void markAvailable(String slotId, String participantId, ParticipantType participantType) {
+        if (participantId == null) {
+            return;
+        }
+        componentClient.forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::markSlotAvailable)
+                .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(
+                        new Participant(participantId, participantType)));
+    }
+
+    private BookingState start(
+            String slotId, String bookingId, String studentId, String aircraftId, String instructorId) {
+        return componentClient.forWorkflow(BookingWorkflow.workflowId(slotId, bookingId))
+                .method(BookingWorkflow::start)
+                .invoke(new Start(slotId, bookingId, studentId, aircraftId, instructorId));
+    }
+
+    private Timeslot slot(String slotId) {
+        return componentClient.forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::getSlot)
+                .invoke();
+    }
+
+    private BookingState awaitOutcome(String slotId, String bookingId) throws InterruptedException {
+        long deadline = System.nanoTime() + 20_000_000_000L;
+        while (true) {
+            BookingState state = componentClient.forWorkflow(BookingWorkflow.workflowId(slotId, bookingId))
+                    .method(BookingWorkflow::getState)
+                    .invoke();
+            if ((state.status() != Status.CHECKING && state.status() != Status.BOOKING)
+                    || System.nanoTime() > deadline) {
+                return state;
+            }
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.example.application;
+
+import io.example.application.FlightConditionsAgent.ConditionsReport;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConditionsReportCacheTest {
+
+    private static final Instant NOW = Instant.parse("2025-12-20T08:00:00Z");
+
+    @Test
+    public void evictsTheLeastRecentlyUsedSlot() {
+        ConditionsReportCache cache = new ConditionsReportCache(2, Duration.ofMinutes(30), Clock.fixed(NOW, ZoneOffset.UTC));
+        cache.put("2025-12-25-10", new ConditionsReport("2025-12-25-10", true));
+        cache.put("2025-12-25-11", new ConditionsReport("2025-12-25-11", true));
+        cache.get("2025-12-25-10");
+        cache.put("2025-12-25-12", new ConditionsReport("2025-12-25-12", false));
+
+        assertThat(cache.get("2025-12-25-10")).isPresent();
+        assertThat(cache.get("2025-12-25-11")).isEmpty();
+        assertThat(cache.stats()).isEqualTo(new ConditionsReportCache.Stats(2, 1, 1, 0, 2));
+    }
+
+    @Test
+    public void dropsReportsWhenTheirForecastHourChanges() {
+        ConditionsReportCache cache = new ConditionsReportCache(10, Duration.ofMinutes(30), Clock.fixed(NOW, ZoneOffset.UTC));
+        cache.put("2025-12-25-10", new ConditionsReport("2025-12-25-10", true));
+        cache.put("2025-12-25T11:00:00", new ConditionsReport("2025-12-25T11:00:00", true));
+
+        cache.invalidateHours(Set.of(2025122510));
+
+        assertThat(cache.get("2025-12-25-10")).isEmpty();
+        assertThat(cache.get("2025-12-25T11:00:00")).isPresent();
+        assertThat(cache.stats().invalidations()).isEqualTo(1);
+    }
+
+    @Test
+    public void expiresReportsPastTheirMaxAge() {
+        ConditionsReportCache cache = new ConditionsReportCache(10, Duration.ZERO, Clock.fixed(NOW, ZoneOffset.UTC));
+        cache.put("2025-12-25-10", new ConditionsReport("2025-12-25-10", true));
+
+        assertThat(cache.get("2025-12-25-10")).isEmpty();
+        assertThat(cache.stats().size()).isZero();
+    }
+}
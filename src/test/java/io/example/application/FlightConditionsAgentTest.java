@@ -20,7 +20,10 @@ public class FlightConditionsAgentTest extends TestKitSupport {
     @Override
     protected TestKit.Settings testKitSettings() {
         return TestKit.Settings.DEFAULT
-                .withAdditionalConfig("akka.javasdk.agent.openai.api-key = n/a")
+                .withAdditionalConfig("""
+                        akka.javasdk.agent.openai.api-key = n/a
+                        flight-conditions.prefetch.enabled = false
+                        """)
                 .withModelProvider(FlightConditionsAgent.class, flightConditionsModel);
     }
 
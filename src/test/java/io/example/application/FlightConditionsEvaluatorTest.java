@@ -0,0 +1,90 @@
+package io.example.application;
+
+import io.example.application.FlightConditionsAgent.ConditionsReport;
+import io.example.application.GoogleWeatherService.ForecastHour;
+import io.example.application.GoogleWeatherService.ForecastLookup;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightConditionsEvaluatorTest {
+
+    private static final String SLOT = "2025-12-25-10";
+
+    @Test
+    public void calmHourMeetsRequirements() {
+        assertThat(evaluate(hour(12, 10, 0))).contains(new ConditionsReport(SLOT, true));
+    }
+
+    @Test
+    public void anyThresholdBreachFailsRequirements() {
+        assertThat(evaluate(hour(20, 10, 0))).contains(new ConditionsReport(SLOT, false));
+        assertThat(evaluate(hour(12, 30, 0))).contains(new ConditionsReport(SLOT, false));
+        assertThat(evaluate(hour(12, 10, 5))).contains(new ConditionsReport(SLOT, false));
+    }
+
+    @Test
+    public void slotsOutsideTheForecastAreDecidedWithoutWeather() {
+        assertThat(FlightConditionsEvaluator.evaluate(SLOT, new ForecastLookup.InPast()))
+                .contains(new ConditionsReport(SLOT, false));
+        assertThat(FlightConditionsEvaluator.evaluate(SLOT, new ForecastLookup.BeyondForecastWindow()))
+                .contains(new ConditionsReport(SLOT, true));
+    }
+
+    @Test
+    public void missingForecastIsLeftUndecided() {
+        assertThat(FlightConditionsEvaluator.evaluate(SLOT, new ForecastLookup.Unavailable("down")))
+                .isEmpty();
+    }
+
+    @Test
+    public void evaluatesOnceTheForecastArrivesWithoutWaitingForIt() {
+        CompletableFuture<ForecastLookup> forecast = new CompletableFuture<>();
+        FlightConditionsEvaluator evaluator = new FlightConditionsEvaluator(forecastFrom(forecast));
+
+        CompletableFuture<Optional<ConditionsReport>> report = evaluator.evaluateAsync(SLOT).toCompletableFuture();
+
+        assertThat(report).isNotDone();
+        forecast.complete(new ForecastLookup.Found(hour(12, 10, 0)));
+        assertThat(report).isCompletedWithValue(Optional.of(new ConditionsReport(SLOT, true)));
+    }
+
+    @Test
+    public void failedForecastIsLeftUndecided() {
+        FlightConditionsEvaluator evaluator = new FlightConditionsEvaluator(
+                forecastFrom(CompletableFuture.failedFuture(new IllegalStateException("down"))));
+
+        assertThat(evaluator.evaluateAsync(SLOT).toCompletableFuture()).isCompletedWithValue(Optional.empty());
+        assertThat(evaluator.evaluateAsync("bestslot").toCompletableFuture()).isCompletedWithValue(Optional.empty());
+    }
+
+    @Test
+    public void slotTimeAcceptsSlotIdsAndIsoDateTimes() {
+        LocalDateTime expected = LocalDateTime.of(2025, 12, 25, 10, 0);
+        assertThat(FlightConditionsEvaluator.slotTime("2025-12-25-10")).contains(expected);
+        assertThat(FlightConditionsEvaluator.slotTime("2025-12-25T10:00:00")).contains(expected);
+        assertThat(FlightConditionsEvaluator.slotTime("bestslot")).isEmpty();
+    }
+
+    private static Optional<ConditionsReport> evaluate(ForecastHour hour) {
+        return FlightConditionsEvaluator.evaluate(SLOT, new ForecastLookup.Found(hour));
+    }
+
+    private static GoogleWeatherService forecastFrom(CompletionStage<ForecastLookup> lookup) {
+        return new GoogleWeatherService() {
+            @Override
+            public CompletionStage<ForecastLookup> lookupForecastHourAsync(LocalDateTime dateTime) {
+                return lookup;
+            }
+        };
+    }
+
+    private static ForecastHour hour(double windSpeed, int rainChance, int thunderstormChance) {
+        return new ForecastHour(2025122510, "Cloudy", 8, rainChance, thunderstormChance, windSpeed);
+    }
+}
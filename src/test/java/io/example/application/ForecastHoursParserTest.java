@@ -0,0 +1,80 @@
+package io.example.application;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.example.application.GoogleWeatherService.ForecastHour;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ForecastHoursParserTest {
+
+    @Test
+    public void readsEveryPageOfTheRecordedForecast() throws IOException {
+        JsonNode recorded;
+        try (InputStream in = getClass().getResourceAsStream("/fixtures/forecast-hours-240.json")) {
+            recorded = ForecastHoursParser.MAPPER.readTree(in);
+        }
+
+        List<ForecastHour> hours = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        for (JsonNode page : recorded) {
+            ForecastHoursParser.Page read = ForecastHoursParser.readPage(
+                    new ByteArrayInputStream(ForecastHoursParser.MAPPER.writeValueAsBytes(page)),
+                    ForecastHoursParser.READ_ALL);
+            hours.addAll(read.hours());
+            tokens.add(read.nextPageToken());
+        }
+
+        assertThat(hours).hasSize(240);
+        assertThat(hours.getFirst().hourKey()).isEqualTo(2025121000);
+        assertThat(hours.getFirst().condition()).isEqualTo("Thunderstorm");
+        assertThat(tokens.subList(0, 9)).doesNotContainNull();
+        assertThat(tokens.getLast()).isNull();
+    }
+
+    @Test
+    public void readsPastAnHourWithoutAStartTime() throws IOException {
+        String page = """
+                {"forecastHours": [
+                  {"interval": {"startTime": "2025-12-10T10:00:00Z"}, "wind": {"speed": {"value": 8}}},
+                  {"weatherCondition": {"description": {"text": "Clear"}}},
+                  {"interval": {"startTime": "2025-12-10T12:00:00Z"}, "thunderstormProbability": 10}
+                ],
+                "nextPageToken": "page-1"}
+                """;
+
+        ForecastHoursParser.Page read = ForecastHoursParser.readPage(
+                new ByteArrayInputStream(page.getBytes(StandardCharsets.UTF_8)), ForecastHoursParser.READ_ALL);
+
+        assertThat(read.hours()).extracting(ForecastHour::hourKey).containsExactly(2025121010, -1, 2025121012);
+        assertThat(read.hours().get(1).condition()).isEqualTo("Clear");
+        assertThat(read.target()).isNull();
+        assertThat(read.nextPageToken()).isEqualTo("page-1");
+    }
+
+    @Test
+    public void stopsAtTheTargetHour() throws IOException {
+        String page = """
+                {"forecastHours": [
+                  {"interval": {"startTime": "2025-12-10T10:00:00Z"}},
+                  {"interval": {"startTime": "2025-12-10T11:00:00Z"}, "temperature": {"degrees": 12.5}},
+                  {"interval": {"startTime": "2025-12-10T12:00:00Z"}}
+                ],
+                "nextPageToken": "page-1"}
+                """;
+
+        ForecastHoursParser.Page read = ForecastHoursParser.readPage(
+                new ByteArrayInputStream(page.getBytes(StandardCharsets.UTF_8)), 2025121011);
+
+        assertThat(read.target().temperature()).isEqualTo(12.5);
+        assertThat(read.hours()).extracting(ForecastHour::hourKey).containsExactly(2025121010);
+        assertThat(read.nextPageToken()).isNull();
+    }
+}
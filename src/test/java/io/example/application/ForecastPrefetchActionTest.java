@@ -0,0 +1,83 @@
+package io.example.application;
+
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.domain.Participant;
+import io.example.domain.Participant.ParticipantType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ForecastPrefetchActionTest extends TestKitSupport {
+
+    // 240 hours in pages of 24
+    private static final int PAGES_PER_REFRESH = 10;
+
+    private final StubForecastServer forecastServer = StubForecastServer.start();
+
+    @Override
+    protected TestKit.Settings testKitSettings() {
+        return TestKit.Settings.DEFAULT
+                .withAdditionalConfig("""
+                        akka.javasdk.agent.openai.api-key = n/a
+                        weather.base-url = "%s"
+                        flight-conditions.prefetch {
+                          enabled = true
+                          initial-delay = 100ms
+                          interval = 1s
+                        }
+                        """.formatted(forecastServer.baseUrl()));
+    }
+
+    @AfterAll
+    public void stopForecastServer() {
+        forecastServer.close();
+    }
+
+    @Test
+    public void refreshesTheForecastAndPrecomputesReportsForAvailableSlots() throws InterruptedException {
+        String slotId = FlightConditionsEvaluator.slotId(
+                LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(3));
+        componentClient.forEventSourcedEntity(slotId)
+                .method(BookingSlotEntity::markSlotAvailable)
+                .invoke(new BookingSlotEntity.Command.MarkSlotAvailable(
+                        new Participant("alice", ParticipantType.STUDENT)));
+
+        // Every run fetches the whole forecast and schedules the next one
+        assertThat(eventually(() -> forecastServer.requests() >= 2 * PAGES_PER_REFRESH)).isTrue();
+        // A run after the slot reached the view has put its report in the cache
+        assertThat(eventually(() -> cachedReports() >= 1)).isTrue();
+        // and stored it where every node can read it
+        ConditionsReportEntity.WarmedReport warmed = componentClient.forKeyValueEntity(slotId)
+                .method(ConditionsReportEntity::get)
+                .invoke();
+        assertThat(warmed.report().timeSlotId()).isEqualTo(slotId);
+        assertThat(warmed.freshAt(Instant.now(), Duration.ofMinutes(30))).isPresent();
+        assertThat(warmed.freshAt(Instant.now().plus(Duration.ofHours(1)), Duration.ofMinutes(30))).isEmpty();
+    }
+
+    private static double cachedReports() {
+        return Metrics.all().stream()
+                .filter(metric -> metric.name().equals("conditions_report_cache_entries"))
+                .mapToDouble(metric -> ((Metrics.Gauge) metric).value())
+                .sum();
+    }
+
+    private static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 20_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(100);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,179 @@
+package io.example.application;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.example.application.GoogleWeatherService.ForecastLookup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GoogleWeatherServiceTest {
+
+    private static final Instant START = Instant.parse("2025-12-20T10:05:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile CountDownLatch gate;
+
+    private HttpServer server;
+    private GoogleWeatherService service;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/forecast/hours:lookup", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        service = new GoogleWeatherService(HttpClient.newHttpClient(), clock,
+                "http://localhost:" + server.getAddress().getPort(), "test-key");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void concurrentCallersShareOneFetch() throws Exception {
+        gate = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<ForecastLookup>> lookups = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20; i++) {
+                lookups.add(CompletableFuture.supplyAsync(this::lookupInTwoHours, callers)
+                        .thenCompose(lookup -> lookup));
+            }
+            waitFor(() -> requests.get() == 1);
+            gate.countDown();
+
+            for (CompletableFuture<ForecastLookup> lookup : lookups) {
+                assertThat(lookup.get(5, TimeUnit.SECONDS)).isInstanceOf(ForecastLookup.Found.class);
+            }
+        } finally {
+            callers.shutdown();
+        }
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void refetchesOnceTheForecastHasExpired() {
+        assertThat(lookupInTwoHours().join()).isInstanceOf(ForecastLookup.Found.class);
+        clock.advance(Duration.ofMinutes(20));
+        assertThat(lookupInTwoHours().join()).isInstanceOf(ForecastLookup.Found.class);
+        assertThat(requests.get()).isEqualTo(1);
+
+        // Past the 30 minute TTL, still in the same hour
+        clock.advance(Duration.ofMinutes(15));
+        assertThat(lookupInTwoHours().join()).isInstanceOf(ForecastLookup.Found.class);
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void retriesA503AndThenReportsTheForecastUnavailable() {
+        status = 503;
+
+        ForecastLookup lookup = lookupInTwoHours().join();
+
+        assertThat(lookup).isInstanceOf(ForecastLookup.Unavailable.class);
+        assertThat(((ForecastLookup.Unavailable) lookup).reason()).contains("503");
+        assertThat(requests.get()).isEqualTo(3);
+    }
+
+    private CompletableFuture<ForecastLookup> lookupInTwoHours() {
+        LocalDateTime slot = LocalDateTime.ofInstant(clock.instant(), ZoneOffset.UTC)
+                .truncatedTo(ChronoUnit.HOURS).plusHours(2);
+        return service.lookupForecastHourAsync(slot).toCompletableFuture();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            CountDownLatch waitFor = gate;
+            if (waitFor != null) {
+                waitFor.await(5, TimeUnit.SECONDS);
+            }
+            String body = status == 200 ? page() : "{\"error\":{\"code\":" + status + "}}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 24 clear hours from the current one, in a single page
+    private String page() {
+        LocalDateTime first = LocalDateTime.ofInstant(clock.instant(), ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        StringBuilder hours = new StringBuilder();
+        for (int i = 0; i < 24; i++) {
+            if (i > 0) {
+                hours.append(',');
+            }
+            hours.append("{\"interval\":{\"startTime\":\"").append(first.plusHours(i)).append(":00Z\"},")
+                    .append("\"weatherCondition\":{\"description\":{\"text\":\"Clear\"}},")
+                    .append("\"wind\":{\"speed\":{\"value\":8}}}");
+        }
+        return "{\"forecastHours\":[" + hours + "]}";
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
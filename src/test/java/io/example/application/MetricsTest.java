@@ -0,0 +1,77 @@
+package io.example.application;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class MetricsTest {
+
+    @Test
+    public void histogramsCountIntoCumulativeBuckets() {
+        Metrics.Histogram histogram = Metrics.histogram("test_histogram_seconds", "test", new double[]{0.1, 1});
+        histogram.observe(0.05);
+        histogram.observe(0.1);
+        histogram.observe(0.5);
+        histogram.observe(3);
+
+        Metrics.Histogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.cumulativeCounts()).containsExactly(2, 3, 4);
+        assertThat(snapshot.count()).isEqualTo(4);
+        assertThat(snapshot.sum()).isCloseTo(3.65, within(1e-9));
+    }
+
+    @Test
+    public void sameNameAndLabelsShareOneMetric() {
+        Metrics.Counter first = Metrics.counter("test_requests_total", "test", "route", "a");
+        Metrics.Counter second = Metrics.counter("test_requests_total", "test", "route", "a");
+        Metrics.Counter other = Metrics.counter("test_requests_total", "test", "route", "b");
+        first.increment();
+        second.add(2);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.value()).isEqualTo(3);
+        assertThat(other.value()).isZero();
+        assertThatThrownBy(() -> Metrics.histogram("test_requests_total", "test", Metrics.COUNT_BUCKETS, "route", "a"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void rendersThePrometheusTextFormat() {
+        Metrics.counter("test_render_total", "Rendered \\ counted", "route", "a\"b").add(2);
+        Metrics.counter("test_render_sampled_total", "Counted elsewhere", () -> 7);
+        Metrics.gauge("test_render_ratio", "A gauge", () -> 0.25);
+        Metrics.histogram("test_render_seconds", "A histogram", new double[]{0.5}).observe(1);
+
+        String text = Metrics.prometheusText("node-1");
+
+        assertThat(text).contains(
+                "# HELP test_render_total Rendered \\\\ counted\n"
+                        + "# TYPE test_render_total counter\n"
+                        + "test_render_total{node=\"node-1\",route=\"a\\\"b\"} 2\n",
+                "# TYPE test_render_sampled_total counter\ntest_render_sampled_total{node=\"node-1\"} 7\n",
+                "# TYPE test_render_ratio gauge\ntest_render_ratio{node=\"node-1\"} 0.25\n",
+                "# TYPE test_render_seconds histogram\n"
+                        + "test_render_seconds_bucket{node=\"node-1\",le=\"0.5\"} 0\n"
+                        + "test_render_seconds_bucket{node=\"node-1\",le=\"+Inf\"} 1\n"
+                        + "test_render_seconds_sum{node=\"node-1\"} 1\n"
+                        + "test_render_seconds_count{node=\"node-1\"} 1\n");
+        assertThatThrownBy(() -> Metrics.counter("test_render_sampled_total", "Counted elsewhere").increment())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void labelsEverySampleWithThisNode() {
+        Metrics.counter("test_node_total", "test", "route", "a").increment();
+        Metrics.histogram("test_node_seconds", "test", new double[]{0.5}).observe(0.1);
+
+        String text = Metrics.prometheusText();
+
+        assertThat(Metrics.node()).isNotBlank();
+        assertThat(text.lines().filter(line -> !line.startsWith("#")))
+                .isNotEmpty()
+                .allMatch(line -> line.contains("{node=\"" + Metrics.node() + "\""));
+    }
+}
@@ -0,0 +1,180 @@
+package io.example.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A local stand-in for the Google Weather API hourly forecast, for running the
+// service without the live API (weather.base-url). It answers
+// /v1/forecast/hours:lookup with 240 hours from the current hour on, in pages of
+// 24 linked by nextPageToken, shaped like the real responses as far as
+// ForecastHoursParser reads them. Every hour is flyable, so the rule-based
+// evaluator settles every slot.
+//
+// Latency and failures can be injected, and changed while it runs: each
+// request waits latency plus up to jitter, and fails with errorStatus at
+// errorRate. Requests are served on virtual threads, so a slow stub never
+// queues requests behind each other.
+public final class StubForecastServer implements AutoCloseable {
+
+    private static final int FORECAST_HOURS = 240;
+    private static final int PAGE_SIZE = 24;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final DateTimeFormatter START_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:00:00'Z'");
+
+    private final HttpServer server;
+    private final Clock clock;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration jitter = Duration.ZERO;
+    private volatile double errorRate;
+    private volatile int errorStatus = 503;
+
+    private StubForecastServer(HttpServer server, Clock clock) {
+        this.server = server;
+        this.clock = clock;
+    }
+
+    // Port 0 picks a free port
+    public static StubForecastServer start(int port, Clock clock) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+            StubForecastServer stub = new StubForecastServer(server, clock);
+            server.createContext("/v1/forecast/hours:lookup", stub::handle);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static StubForecastServer start() {
+        return start(0, Clock.systemDefaultZone());
+    }
+
+    // For weather.base-url
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public StubForecastServer withLatency(Duration latency, Duration jitter) {
+        this.latency = latency;
+        this.jitter = jitter;
+        return this;
+    }
+
+    // rate is the share of requests, 0 to 1, answered with status instead of a page
+    public StubForecastServer withErrors(double rate, int status) {
+        this.errorRate = rate;
+        this.errorStatus = status;
+        return this;
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long failures() {
+        return failures.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            delay();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                failures.incrementAndGet();
+                respond(exchange, errorStatus, "{\"error\":{\"code\":" + errorStatus + ",\"message\":\"injected\"}}");
+                return;
+            }
+            int page = page(exchange.getRequestURI());
+            respond(exchange, 200, MAPPER.writeValueAsString(page(page)));
+        }
+    }
+
+    private void delay() {
+        long millis = latency.toMillis();
+        if (!jitter.isZero()) {
+            millis += ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1);
+        }
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private ObjectNode page(int page) {
+        LocalDateTime firstHour = LocalDateTime.now(clock).truncatedTo(ChronoUnit.HOURS);
+        ObjectNode root = MAPPER.createObjectNode();
+        ArrayNode hours = root.putArray("forecastHours");
+        for (int i = page * PAGE_SIZE; i < Math.min((page + 1) * PAGE_SIZE, FORECAST_HOURS); i++) {
+            hours.add(hour(firstHour.plusHours(i)));
+        }
+        root.putObject("timeZone").put("id", "Etc/UTC");
+        if ((page + 1) * PAGE_SIZE < FORECAST_HOURS) {
+            root.put("nextPageToken", "page-" + (page + 1));
+        }
+        return root;
+    }
+
+    private static ObjectNode hour(LocalDateTime start) {
+        ObjectNode hour = MAPPER.createObjectNode();
+        ObjectNode interval = hour.putObject("interval");
+        interval.put("startTime", START_TIME.format(start));
+        interval.put("endTime", START_TIME.format(start.plusHours(1)));
+        hour.putObject("weatherCondition").putObject("description").put("text", "Clear").put("languageCode", "en");
+        hour.putObject("temperature").put("degrees", 15.0).put("unit", "CELSIUS");
+        hour.putObject("precipitation").putObject("probability").put("percent", 5).put("type", "RAIN");
+        hour.putObject("wind").putObject("speed").put("value", 8).put("unit", "KILOMETERS_PER_HOUR");
+        hour.put("thunderstormProbability", 0);
+        return hour;
+    }
+
+    private static int page(URI uri) {
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("pageToken=page-")) {
+                    return Integer.parseInt(parameter.substring("pageToken=page-".length()));
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+public class DayScheduleTest {
+
+  @Test
+  public void followsAvailabilityAndBookingsByHour() {
+    DaySchedule day = DaySchedule.empty()
+        .markAvailable(0)
+        .markAvailable(9)
+        .markAvailable(23)
+        .book(9);
+
+    assertThat(day.availableHours()).containsExactly(0, 23);
+    assertThat(day.bookedHours()).containsExactly(9);
+    assertThat(day.isBooked(9)).isTrue();
+    assertThat(day.isAvailable(9)).isFalse();
+
+    day = day.cancel(9).unmarkAvailable(0);
+
+    assertThat(day.availableHours()).containsExactly(23);
+    assertThat(day.bookedHours()).isEmpty();
+  }
+
+  @Test
+  public void appliesChangesIdempotently() {
+    DaySchedule once = DaySchedule.empty().markAvailable(10).book(11);
+
+    assertThat(once.markAvailable(10).book(11)).isEqualTo(once);
+    assertThat(once.cancel(11).cancel(11)).isEqualTo(once.cancel(11));
+  }
+
+  @Test
+  public void rejectsHoursOutsideTheDay() {
+    assertThatThrownBy(() -> DaySchedule.empty().markAvailable(24))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> DaySchedule.empty().book(-1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
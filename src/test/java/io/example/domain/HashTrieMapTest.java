@@ -0,0 +1,106 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class HashTrieMapTest {
+
+  // Few distinct hash codes, so deep paths and collision nodes get exercised
+  private record Key(int hash, int id) {
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  @Test
+  public void behavesLikeAHashMap() {
+    Random random = new Random(42);
+    Map<Key, Integer> expected = new HashMap<>();
+    HashTrieMap<Key, Integer> map = HashTrieMap.empty();
+
+    for (int i = 0; i < 50_000; i++) {
+      int hash = random.nextBoolean() ? random.nextInt(64) : random.nextInt();
+      Key key = new Key(hash, random.nextInt(4));
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        map = map.minus(key);
+      } else {
+        expected.put(key, i);
+        map = map.plus(key, i);
+      }
+      assertThat(map.get(key)).isEqualTo(expected.get(key));
+    }
+
+    assertThat(map.size()).isEqualTo(expected.size());
+    List<Integer> values = new ArrayList<>();
+    map.values().forEachRemaining(values::add);
+    assertThat(values).containsExactlyInAnyOrderElementsOf(expected.values());
+    for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+      assertThat(map.get(entry.getKey())).isEqualTo(entry.getValue());
+    }
+  }
+
+  @Test
+  public void buildsTheSameMapAsRepeatedPlus() {
+    Random random = new Random(42);
+    HashTrieMap.Builder<Key, Integer> builder = HashTrieMap.builder(0);
+    HashTrieMap<Key, Integer> expected = HashTrieMap.empty();
+
+    for (int i = 0; i < 20_000; i++) {
+      int hash = random.nextBoolean() ? random.nextInt(64) : random.nextInt();
+      Key key = new Key(hash, random.nextInt(4));
+      builder.put(key, i);
+      expected = expected.plus(key, i);
+    }
+    HashTrieMap<Key, Integer> built = builder.build();
+
+    assertThat(built.size()).isEqualTo(expected.size());
+    List<Integer> builtValues = new ArrayList<>();
+    built.values().forEachRemaining(builtValues::add);
+    List<Integer> expectedValues = new ArrayList<>();
+    expected.values().forEachRemaining(expectedValues::add);
+    assertThat(builtValues).containsExactlyInAnyOrderElementsOf(expectedValues);
+    // Still a working trie: every update agrees with the map it was built to match
+    for (int i = 0; i < 5_000; i++) {
+      Key key = new Key(random.nextInt(64), random.nextInt(4));
+      built = built.minus(key);
+      expected = expected.minus(key);
+      assertThat(built.size()).isEqualTo(expected.size());
+    }
+  }
+
+  @Test
+  public void buildsTheSharedEmptyMapFromNothing() {
+    assertThat(HashTrieMap.<String, String>builder(8).build()).isSameAs(HashTrieMap.empty());
+  }
+
+  @Test
+  public void leavesEarlierVersionsUntouched() {
+    HashTrieMap<String, String> before = HashTrieMap.<String, String>empty().plus("a", "1").plus("b", "2");
+
+    HashTrieMap<String, String> after = before.plus("c", "3").minus("a").plus("b", "20");
+
+    assertThat(before.size()).isEqualTo(2);
+    assertThat(before.get("a")).isEqualTo("1");
+    assertThat(before.get("b")).isEqualTo("2");
+    assertThat(before.containsKey("c")).isFalse();
+    assertThat(after.size()).isEqualTo(2);
+    assertThat(after.containsKey("a")).isFalse();
+    assertThat(after.get("b")).isEqualTo("20");
+  }
+
+  @Test
+  public void emptiesBackToTheSharedEmptyMap() {
+    HashTrieMap<String, String> map = HashTrieMap.<String, String>empty().plus("a", "1");
+
+    assertThat(map.minus("missing")).isSameAs(map);
+    assertThat(map.minus("a")).isSameAs(HashTrieMap.empty());
+  }
+}
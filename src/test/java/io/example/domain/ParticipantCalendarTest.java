@@ -0,0 +1,57 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.example.domain.Participant.ParticipantType;
+import io.example.domain.ParticipantCalendar.CalendarSlot;
+import org.junit.jupiter.api.Test;
+
+public class ParticipantCalendarTest {
+
+  @Test
+  public void keepsSlotsInOrderAndFindsRanges() {
+    ParticipantCalendar calendar = ParticipantCalendar.empty()
+        .markAvailable("2025-12-10-14", "alice", ParticipantType.STUDENT)
+        .markAvailable("2025-12-01-09", "alice", ParticipantType.STUDENT)
+        .markAvailable("2025-12-10-09", "alice", ParticipantType.STUDENT)
+        .book("2025-12-10-09", "alice", ParticipantType.STUDENT, "b-1");
+
+    assertThat(calendar.slots()).extracting(CalendarSlot::slotId)
+        .containsExactly("2025-12-01-09", "2025-12-10-09", "2025-12-10-14");
+    assertThat(calendar.between("2025-12-10-00", "2025-12-10-23", null))
+        .containsExactly(
+            new CalendarSlot("2025-12-10-09", "booked", "b-1"),
+            new CalendarSlot("2025-12-10-14", "available", null));
+    assertThat(calendar.between("2025-12-01-09", "2025-12-10-09", "available"))
+        .containsExactly(new CalendarSlot("2025-12-01-09", "available", null));
+    assertThat(calendar.between("2025-12-11-00", "2025-12-31-23", null)).isEmpty();
+  }
+
+  @Test
+  public void ignoresChangesItAlreadyHas() {
+    ParticipantCalendar calendar = ParticipantCalendar.empty()
+        .book("2025-12-10-09", "superplane", ParticipantType.AIRCRAFT, "b-1");
+
+    assertThat(calendar.book("2025-12-10-09", "superplane", ParticipantType.AIRCRAFT, "b-1"))
+        .isSameAs(calendar);
+    assertThat(calendar.cancel("2025-12-10-09", "superplane", ParticipantType.AIRCRAFT, "b-1")
+        .find("2025-12-10-09"))
+        .contains(new CalendarSlot("2025-12-10-09", "canceled", "b-1"));
+  }
+
+  @Test
+  public void serializesAsAPlainListOfSlots() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    ParticipantCalendar calendar = ParticipantCalendar.empty()
+        .markAvailable("2025-12-10-14", "bob", ParticipantType.INSTRUCTOR)
+        .book("2025-12-10-09", "bob", ParticipantType.INSTRUCTOR, "b-1");
+
+    String json = mapper.writeValueAsString(calendar);
+    ParticipantCalendar restored = mapper.readValue(json, ParticipantCalendar.class);
+
+    assertThat(mapper.readTree(json).get("slots").isArray()).isTrue();
+    assertThat(restored).isEqualTo(calendar);
+    assertThat(restored.find("2025-12-10-09")).contains(new CalendarSlot("2025-12-10-09", "booked", "b-1"));
+  }
+}
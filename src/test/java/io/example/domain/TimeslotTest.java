@@ -0,0 +1,250 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import io.example.domain.Participant.ParticipantType;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class TimeslotTest {
+
+  private static final String SLOT_ID = "2025-12-25-10";
+  private static final int PROBES = 100_000;
+
+  @Test
+  public void findsAndCancelsBookingsById() {
+    Timeslot slot = bookedSlot();
+
+    assertThat(slot.findBooking("b-1")).hasSize(3);
+    assertThat(slot.findBooking("b-2")).hasSize(3);
+    assertThat(slot.findBooking("missing")).isEmpty();
+
+    slot = slot.cancelBooking("b-1");
+
+    assertThat(slot.findBooking("b-1")).isEmpty();
+    assertThat(slot.findBooking("b-2")).hasSize(3);
+    assertThat(slot.bookings()).hasSize(3);
+  }
+
+  @Test
+  public void onlyAvailableParticipantsAreBookable() {
+    Timeslot slot = new Timeslot(new HashSet<>(), new HashSet<>())
+        .reserve(available("alice", ParticipantType.STUDENT))
+        .reserve(available("superplane", ParticipantType.AIRCRAFT))
+        .reserve(available("bob", ParticipantType.INSTRUCTOR));
+
+    assertThat(slot.isBookable("alice", "superplane", "bob")).isTrue();
+    // Right ID, wrong type
+    assertThat(slot.isBookable("bob", "superplane", "alice")).isFalse();
+
+    slot = slot.unreserve(new BookingEvent.ParticipantUnmarkedAvailable(
+        SLOT_ID, "superplane", ParticipantType.AIRCRAFT));
+
+    assertThat(slot.isWaiting("superplane", ParticipantType.AIRCRAFT)).isFalse();
+    assertThat(slot.isBookable("alice", "superplane", "bob")).isFalse();
+  }
+
+  @Test
+  public void keepsTheSameIdApartByType() {
+    Timeslot slot = new Timeslot(new HashSet<>(), new HashSet<>())
+        .reserve(available("pat", ParticipantType.STUDENT))
+        .reserve(available("pat", ParticipantType.INSTRUCTOR));
+
+    assertThat(slot.available()).containsExactlyInAnyOrder(
+        new Participant("pat", ParticipantType.STUDENT),
+        new Participant("pat", ParticipantType.INSTRUCTOR));
+
+    slot = slot.book(booked("pat", ParticipantType.STUDENT, "b-1"));
+
+    assertThat(slot.isWaiting("pat", ParticipantType.STUDENT)).isFalse();
+    assertThat(slot.isWaiting("pat", ParticipantType.INSTRUCTOR)).isTrue();
+    assertThat(slot.isWaiting("pat", ParticipantType.AIRCRAFT)).isFalse();
+    assertThat(slot.available()).hasSize(1);
+  }
+
+  @Test
+  public void followsWhoHoldsABookingThroughCancellations() {
+    Timeslot slot = bookedSlot()
+        .book(booked("aircraft-b-1", ParticipantType.AIRCRAFT, "b-3"));
+
+    slot = slot.cancelBooking("b-1");
+
+    assertThat(slot.isBooked("aircraft-b-1", ParticipantType.AIRCRAFT)).isTrue();
+    assertThat(slot.isBooked("student-b-1", ParticipantType.STUDENT)).isFalse();
+    assertThat(slot.isBooked("aircraft-b-1", ParticipantType.STUDENT)).isFalse();
+
+    slot = slot.cancelBooking("b-3");
+
+    assertThat(slot.isBooked("aircraft-b-1", ParticipantType.AIRCRAFT)).isFalse();
+    assertThat(slot.isBooked("aircraft-b-2", ParticipantType.AIRCRAFT)).isTrue();
+  }
+
+  @Test
+  public void checksParticipantsWithoutAllocating() {
+    Timeslot slot = bookedSlot()
+        .reserve(available("carol", ParticipantType.STUDENT))
+        .reserve(available("jet", ParticipantType.AIRCRAFT))
+        .reserve(available("dave", ParticipantType.INSTRUCTOR));
+    // The IDs a command would carry, already in hand before the checks
+    String student = new String("carol");
+    String aircraft = new String("jet");
+    String instructor = new String("dave");
+    String booked = new String("aircraft-b-2");
+    ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    int hits = probe(slot, student, aircraft, instructor, booked);
+    long before = threads.getCurrentThreadAllocatedBytes();
+    hits += probe(slot, student, aircraft, instructor, booked);
+    long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+    assertThat(hits).isEqualTo(2 * 2 * PROBES);
+    // A Participant per check would be megabytes over this many probes
+    assertThat(allocated).isLessThan(1024);
+  }
+
+  private static int probe(Timeslot slot, String student, String aircraft, String instructor, String booked) {
+    int hits = 0;
+    for (int i = 0; i < PROBES; i++) {
+      if (slot.isBookable(student, aircraft, instructor)) {
+        hits++;
+      }
+      if (slot.isBooked(booked, ParticipantType.AIRCRAFT)) {
+        hits++;
+      }
+    }
+    return hits;
+  }
+
+  @Test
+  public void compositeAndPerParticipantEventsBookTheSame() {
+    Timeslot available = new Timeslot(new HashSet<>(), new HashSet<>())
+        .reserve(available("alice", ParticipantType.STUDENT))
+        .reserve(available("superplane", ParticipantType.AIRCRAFT))
+        .reserve(available("bob", ParticipantType.INSTRUCTOR));
+
+    Timeslot composite = available.book(
+        new BookingEvent.ReservationBooked(SLOT_ID, "b-1", "alice", "superplane", "bob"));
+    Timeslot perParticipant = available
+        .book(booked("alice", ParticipantType.STUDENT, "b-1"))
+        .book(booked("superplane", ParticipantType.AIRCRAFT, "b-1"))
+        .book(booked("bob", ParticipantType.INSTRUCTOR, "b-1"));
+
+    assertThat(composite).isEqualTo(perParticipant);
+    assertThat(composite.available()).isEmpty();
+    assertThat(composite.findBooking("b-1")).containsExactlyInAnyOrderElementsOf(perParticipant.findBooking("b-1"));
+    assertThat(composite.cancelBooking("b-1").bookings()).isEmpty();
+  }
+
+  @Test
+  public void remembersRecentBookingsPastCancellation() {
+    Timeslot slot = bookedSlot().cancelBooking("b-1");
+
+    assertThat(slot.findRecentBooking("b-1")).contains(
+        new Timeslot.Reservation("b-1", "student-b-1", "aircraft-b-1", "instructor-b-1"));
+    assertThat(slot.findRecentBooking("missing")).isEmpty();
+
+    for (int i = 0; i < RecentBookings.CAPACITY; i++) {
+      slot = slot.book(new BookingEvent.ReservationBooked(SLOT_ID, "r-" + i, "s-" + i, "a-" + i, "i-" + i));
+    }
+
+    assertThat(slot.recentBookings()).hasSize(RecentBookings.CAPACITY);
+    assertThat(slot.findRecentBooking("b-1")).isEmpty();
+    assertThat(slot.findRecentBooking("r-0")).isPresent();
+    assertThat(slot.recentBookings().get(RecentBookings.CAPACITY - 1).bookingId())
+        .isEqualTo("r-" + (RecentBookings.CAPACITY - 1));
+  }
+
+  @Test
+  public void leavesEarlierStatesUntouched() {
+    Timeslot before = bookedSlot().reserve(available("carol", ParticipantType.STUDENT));
+
+    Timeslot after = before
+        .cancelBooking("b-1")
+        .book(booked("carol", ParticipantType.STUDENT, "b-3"));
+
+    assertThat(before.bookings()).hasSize(6);
+    assertThat(before.findBooking("b-1")).hasSize(3);
+    assertThat(before.isWaiting("carol", ParticipantType.STUDENT)).isTrue();
+    assertThat(after.bookings()).hasSize(4);
+    assertThat(after.isWaiting("carol", ParticipantType.STUDENT)).isFalse();
+  }
+
+  @Test
+  public void keepsItsJsonShape() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    Timeslot slot = bookedSlot().reserve(available("carol", ParticipantType.STUDENT));
+
+    JsonNode json = mapper.valueToTree(slot);
+    assertThat(json.get("bookings").isArray()).isTrue();
+    assertThat(json.get("bookings")).hasSize(6);
+    assertThat(json.get("available").isArray()).isTrue();
+    assertThat(json.get("available").get(0).get("id").asText()).isEqualTo("carol");
+
+    Timeslot restored = mapper.treeToValue(json, Timeslot.class);
+    assertThat(restored).isEqualTo(slot);
+    assertThat(restored.findBooking("b-2")).hasSize(3);
+    assertThat(restored.isWaiting("carol", ParticipantType.STUDENT)).isTrue();
+    assertThat(restored.findRecentBooking("b-2")).isPresent();
+  }
+
+  @Test
+  public void readsStateWrittenAsPlainSets() throws Exception {
+    String json = """
+        {"bookings":[
+          {"participant":{"id":"0b6c7a4e-31a2-4d55-9f0e-8d1c2b3a4f5e","participantType":"STUDENT"},"bookingId":"b-1"},
+          {"participant":{"id":"superplane","participantType":"AIRCRAFT"},"bookingId":"b-1"}],
+         "available":[{"id":"0b6c7a4e-31a2-4d55-9f0e-8d1c2b3a4f5e","participantType":"INSTRUCTOR"}]}
+        """;
+
+    Timeslot slot = new ObjectMapper().readValue(json, Timeslot.class);
+
+    assertThat(slot.findBooking("b-1")).containsExactlyInAnyOrder(
+        new Timeslot.Booking(
+            new Participant("0b6c7a4e-31a2-4d55-9f0e-8d1c2b3a4f5e", ParticipantType.STUDENT), "b-1"),
+        new Timeslot.Booking(new Participant("superplane", ParticipantType.AIRCRAFT), "b-1"));
+    assertThat(slot.isBooked("superplane", ParticipantType.AIRCRAFT)).isTrue();
+    assertThat(slot.isBooked("0b6c7a4e-31a2-4d55-9f0e-8d1c2b3a4f5e", ParticipantType.INSTRUCTOR)).isFalse();
+    assertThat(slot.isWaiting("0b6c7a4e-31a2-4d55-9f0e-8d1c2b3a4f5e", ParticipantType.INSTRUCTOR)).isTrue();
+    assertThat(slot.recentBookings()).isEmpty();
+  }
+
+  @Test
+  public void acceptsSetsItCannotModify() {
+    Timeslot slot = new Timeslot(Set.of(), Set.of(new Participant("alice", ParticipantType.STUDENT)));
+
+    slot = slot.book(new BookingEvent.ParticipantBooked(
+        SLOT_ID, "alice", ParticipantType.STUDENT, "b-1"));
+
+    assertThat(slot.available()).isEmpty();
+    assertThat(slot.findBooking("b-1")).hasSize(1);
+  }
+
+  private static Timeslot bookedSlot() {
+    Timeslot slot = new Timeslot(new HashSet<>(), new HashSet<>());
+    for (String bookingId : Set.of("b-1", "b-2")) {
+      String suffix = "-" + bookingId;
+      slot = slot
+          .reserve(available("student" + suffix, ParticipantType.STUDENT))
+          .reserve(available("aircraft" + suffix, ParticipantType.AIRCRAFT))
+          .reserve(available("instructor" + suffix, ParticipantType.INSTRUCTOR))
+          .book(booked("student" + suffix, ParticipantType.STUDENT, bookingId))
+          .book(booked("aircraft" + suffix, ParticipantType.AIRCRAFT, bookingId))
+          .book(booked("instructor" + suffix, ParticipantType.INSTRUCTOR, bookingId));
+    }
+    return slot;
+  }
+
+  private static BookingEvent.ParticipantMarkedAvailable available(String id, ParticipantType type) {
+    return new BookingEvent.ParticipantMarkedAvailable(SLOT_ID, id, type);
+  }
+
+  private static BookingEvent.ParticipantBooked booked(
+      String id, ParticipantType type, String bookingId) {
+    return new BookingEvent.ParticipantBooked(SLOT_ID, id, type, bookingId);
+  }
+}